@@ -0,0 +1,114 @@
+package pmb.my.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.RegExUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pmb.my.starter.utils.NumberParser;
+import pmb.my.starter.utils.VariousUtils;
+
+/**
+ * Benchmarks of sorting numbers as strings with {@link VariousUtils} comparators, compared to their former regex based implementation and to the
+ * sorts parsing each key once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComparatorBenchmark {
+
+    private static final Comparator<String> LEGACY_DOUBLE = (String s1, String s2) -> Double
+            .valueOf(Double.parseDouble(RegExUtils.replaceAll(s1, ",", ".")))
+            .compareTo(Double.valueOf(Double.parseDouble(RegExUtils.replaceAll(s2, ",", "."))));
+
+    private static final Comparator<String> LEGACY_PERCENTAGE = (String s1, String s2) -> Double
+            .valueOf(Double.parseDouble(RegExUtils.replaceAll(StringUtils.substringBefore(s1, "%"), ",", ".")))
+            .compareTo(Double.valueOf(Double.parseDouble(RegExUtils.replaceAll(StringUtils.substringBefore(s2, "%"), ",", "."))));
+
+    private static final Comparator<String> LEGACY_INTEGER = (String s1, String s2) -> Integer
+            .valueOf(StringUtils.isBlank(s1) ? "0" : s1).compareTo(Integer.valueOf(StringUtils.isBlank(s2) ? "0" : s2));
+
+    @Param({ "10000" })
+    private int size;
+
+    private List<String> decimals;
+    private List<String> percentages;
+    private List<String> integers;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        decimals = new ArrayList<>(size);
+        percentages = new ArrayList<>(size);
+        integers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String decimal = String.format(Locale.ROOT, "%d,%02d", random.nextInt(100000), random.nextInt(100));
+            decimals.add(decimal);
+            percentages.add(decimal + " %");
+            integers.add(random.nextInt(10) == 0 ? "" : String.valueOf(random.nextInt()));
+        }
+    }
+
+    @Benchmark
+    public List<String> legacyCompareDouble() {
+        return sorted(decimals, LEGACY_DOUBLE);
+    }
+
+    @Benchmark
+    public List<String> compareDouble() {
+        return sorted(decimals, VariousUtils.compareDouble);
+    }
+
+    @Benchmark
+    public List<String> sortByDouble() {
+        List<String> list = new ArrayList<>(decimals);
+        VariousUtils.sortByDouble(list, NumberParser::parseDecimal);
+        return list;
+    }
+
+    @Benchmark
+    public List<String> legacyComparePercentage() {
+        return sorted(percentages, LEGACY_PERCENTAGE);
+    }
+
+    @Benchmark
+    public List<String> comparePercentage() {
+        return sorted(percentages, VariousUtils.comparePercentage);
+    }
+
+    @Benchmark
+    public List<String> legacyCompareInteger() {
+        return sorted(integers, LEGACY_INTEGER);
+    }
+
+    @Benchmark
+    public List<String> compareInteger() {
+        return sorted(integers, VariousUtils.compareInteger);
+    }
+
+    private static List<String> sorted(List<String> values, Comparator<String> comparator) {
+        List<String> list = new ArrayList<>(values);
+        list.sort(comparator);
+        return list;
+    }
+
+}
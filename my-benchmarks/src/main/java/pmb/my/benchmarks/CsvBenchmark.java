@@ -0,0 +1,91 @@
+package pmb.my.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pmb.my.starter.utils.CsvFormat;
+import pmb.my.starter.utils.CsvReader;
+import pmb.my.starter.utils.CsvReader.ColumnType;
+import pmb.my.starter.utils.MyFileUtils;
+import pmb.my.starter.utils.NumberParser;
+import pmb.my.starter.utils.VariousUtils;
+
+/**
+ * Benchmarks of CSV import, summing two numeric columns out of six: {@link MyFileUtils#readFile(File)} with lines split by hand compared to
+ * {@link CsvReader}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvBenchmark {
+
+    @Param({ "100000" })
+    private int lines;
+
+    private File csv;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        csv = Files.createTempFile("my-benchmarks", ".csv").toFile();
+        MyFileUtils.writeFile(csv, IntStream.range(0, lines)
+                .mapToObj(i -> i + ";" + VariousUtils.getUuid() + ";\"Artist " + i + "; feat. X\";" + i % 2000 + ";" + i * 3 + "," + i % 100 + ";End")
+                .toList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(csv.toPath());
+    }
+
+    @Benchmark
+    public double split() {
+        double sum = 0D;
+        for (String line : MyFileUtils.readFile(csv)) {
+            // Splitting by hand breaks on the quoted separator, columns are counted from the end
+            String[] fields = line.split(";");
+            sum += NumberParser.parseIntOrZero(fields[fields.length - 3]) + NumberParser.parseDecimal(fields[fields.length - 2]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double csvReader() {
+        double sum = 0D;
+        try (CsvReader reader = CsvReader.open(csv, CsvFormat.ANSI).select(3, 4)) {
+            while (reader.next()) {
+                sum += reader.getLong(0, 0L) + reader.getDouble(1, 0D);
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public List<double[]> readColumns() {
+        try (CsvReader reader = CsvReader.open(csv, CsvFormat.ANSI).select(3, 4)) {
+            CsvReader.Columns columns = reader.readColumns(0L, 0D, ColumnType.DOUBLE, ColumnType.DOUBLE);
+            return List.of(columns.doubles(0), columns.doubles(1));
+        }
+    }
+
+}
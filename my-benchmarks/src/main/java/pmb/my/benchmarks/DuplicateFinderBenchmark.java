@@ -0,0 +1,113 @@
+package pmb.my.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pmb.my.starter.exception.MajorException;
+import pmb.my.starter.utils.CallableThrowing;
+import pmb.my.starter.utils.DuplicateFinder;
+import pmb.my.starter.utils.MyFileUtils;
+import pmb.my.starter.utils.TaskRunner;
+
+/**
+ * Benchmarks of duplicate file detection in a folder of files of a few sizes, one out of ten having a twin: hashing every file completely
+ * compared to {@link DuplicateFinder}, without cache. Both hash files with the same concurrency, so the difference comes from the stages only.
+ * Files stay in the page cache, so this measures hashing rather than disk reads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DuplicateFinderBenchmark {
+
+    @Param({ "200" })
+    private int files;
+
+    @Param({ "1048576" })
+    private int fileSize;
+
+    @Param({ "1", "4" })
+    private int concurrency;
+
+    private Path folder;
+    private TaskRunner runner;
+    private DuplicateFinder finder;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("my-benchmarks");
+        Random random = new Random(42);
+        byte[] content = new byte[fileSize];
+        for (int i = 0; i < files; i++) {
+            if (i % 10 != 1) {
+                // Four sizes only, so that most files share their size with others
+                content = new byte[fileSize - i % 4];
+                random.nextBytes(content);
+            }
+            Files.write(folder.resolve(i + ".bin"), content);
+        }
+        runner = new TaskRunner(concurrency);
+        finder = new DuplicateFinder(concurrency, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        runner.close();
+        finder.close();
+        try (Stream<Path> paths = Files.walk(folder)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public int fullHash() throws MajorException {
+        List<CallableThrowing<ByteBuffer>> tasks = new ArrayList<>();
+        for (File file : MyFileUtils.listFilesInFolder(folder.toFile(), (List<String>) null, false)) {
+            tasks.add(() -> {
+                try {
+                    return ByteBuffer.wrap(MessageDigest.getInstance(DuplicateFinder.ALGORITHM).digest(Files.readAllBytes(file.toPath())));
+                } catch (IOException | NoSuchAlgorithmException e) {
+                    throw new MajorException("Error when hashing: " + file, e);
+                }
+            });
+        }
+        Map<ByteBuffer, Integer> counts = new HashMap<>();
+        runner.callAll(tasks).forEach(hash -> counts.merge(hash, 1, Integer::sum));
+        return (int) counts.values().stream().filter(count -> count > 1).count();
+    }
+
+    @Benchmark
+    public int duplicateFinder() throws MajorException {
+        return finder.find(folder.toFile(), null, false).duplicates().size();
+    }
+
+}
@@ -0,0 +1,105 @@
+package pmb.my.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pmb.my.starter.exception.MajorException;
+import pmb.my.starter.utils.MyConstant;
+import pmb.my.starter.utils.MyFileUtils;
+import pmb.my.starter.utils.VariousUtils;
+
+/**
+ * Benchmarks of {@link MyFileUtils} on fixtures generated in a temporary folder: a text file and a tree of small files.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FileBenchmark {
+
+    @Param({ "100000" })
+    private int lines;
+
+    @Param({ "2000" })
+    private int files;
+
+    private Path folder;
+    private File text;
+    private File output;
+    private File tree;
+    private List<String> content;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("my-benchmarks");
+        content = IntStream.range(0, lines).mapToObj(i -> "Line " + i + ";" + VariousUtils.getUuid() + ";" + i * 3.14).toList();
+        text = folder.resolve("fixture.txt").toFile();
+        MyFileUtils.writeFile(text, content);
+        output = folder.resolve("output.txt").toFile();
+        tree = folder.resolve("tree").toFile();
+        for (int i = 0; i < files; i++) {
+            Path file = tree.toPath().resolve("dir" + i % 10).resolve("sub" + i % 7).resolve("file" + i + (i % 2 == 0 ? ".csv" : ".txt"));
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, "content " + i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(folder)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public List<String> readFile() {
+        return MyFileUtils.readFile(text);
+    }
+
+    @Benchmark
+    public long streamFile() {
+        try (Stream<String> stream = MyFileUtils.streamFile(text, MyConstant.ANSI_ENCODING)) {
+            return stream.count();
+        }
+    }
+
+    @Benchmark
+    public File writeFile() {
+        MyFileUtils.writeFile(output, content);
+        return output;
+    }
+
+    @Benchmark
+    public File zipFile() throws MajorException {
+        return MyFileUtils.zipFile(text);
+    }
+
+    @Benchmark
+    public List<File> listFilesInFolder() {
+        return MyFileUtils.listFilesInFolder(tree, List.of("csv"), true);
+    }
+
+}
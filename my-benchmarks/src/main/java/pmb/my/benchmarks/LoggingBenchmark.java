@@ -0,0 +1,75 @@
+package pmb.my.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.util.Unbox;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pmb.my.starter.logging.LoggingBootstrap;
+
+/**
+ * Benchmarks of the time spent by calling threads to log, with the configuration of {@link LoggingBootstrap}: asynchronous loggers compared to
+ * synchronous ones, writing to a rolling file in a temporary folder. Run with {@code -prof gc} to check allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class LoggingBenchmark {
+
+    private static final Logger LOG = LogManager.getLogger(LoggingBenchmark.class);
+
+    @Param({ "true", "false" })
+    private boolean async;
+
+    private Path folder;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Trial)
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("my-benchmarks");
+        LoggingBootstrap.init(folder.resolve("benchmark.log"), Level.INFO, async, false);
+    }
+
+    @TearDown(org.openjdk.jmh.annotations.Level.Trial)
+    public void tearDown() throws IOException {
+        LogManager.shutdown();
+        try (Stream<Path> paths = Files.walk(folder)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public void info() {
+        LOG.info("Processed {} items of {}", Unbox.box(42), "benchmark");
+    }
+
+    @Benchmark
+    public void disabledDebug() {
+        LOG.debug("Processed {} items of {}", Unbox.box(42), "benchmark");
+    }
+
+}
@@ -0,0 +1,74 @@
+package pmb.my.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pmb.my.starter.utils.IntProperty;
+import pmb.my.starter.utils.MyProperties;
+
+/**
+ * Benchmarks of reading properties concurrently with {@link MyProperties}, from a configuration file generated in a temporary folder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class PropertiesBenchmark {
+
+    private static final IntProperty SIZE = new IntProperty("size", 0);
+
+    private Path config;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        config = Files.createTempFile("my-benchmarks", ".properties");
+        List<String> lines = IntStream.range(0, 100).mapToObj(i -> "key" + i + "=value" + i).collect(Collectors.toList());
+        lines.add("size=42");
+        Files.write(config, lines);
+        MyProperties.setConfigPath(config.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(config);
+    }
+
+    @Benchmark
+    public Optional<String> get() {
+        return MyProperties.get("key50");
+    }
+
+    @Benchmark
+    public String getOrDefault() {
+        return MyProperties.getOrDefault("missing", "default");
+    }
+
+    @Benchmark
+    public int typedGet() {
+        return SIZE.get();
+    }
+
+}
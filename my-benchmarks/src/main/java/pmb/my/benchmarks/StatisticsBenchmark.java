@@ -0,0 +1,95 @@
+package pmb.my.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pmb.my.starter.utils.MyStatistics;
+import pmb.my.starter.utils.QuantileSketch;
+import pmb.my.starter.utils.VariousUtils;
+
+/**
+ * Benchmarks of median and standard deviation: {@link VariousUtils} methods, compared to a sort based median and to {@link MyStatistics} on
+ * primitives.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatisticsBenchmark {
+
+    @Param({ "1000000" })
+    private int size;
+
+    private double[] values;
+    private List<Double> boxed;
+    private List<BigDecimal> decimals;
+    private double mean;
+
+    @Setup
+    public void setUp() {
+        values = new Random(42).doubles(size, 0, 1000).toArray();
+        boxed = new ArrayList<>(size);
+        decimals = new ArrayList<>(size);
+        for (double value : values) {
+            boxed.add(value);
+            decimals.add(BigDecimal.valueOf(value));
+        }
+        mean = MyStatistics.summarize(values).getMean();
+    }
+
+    @Benchmark
+    public double legacyMedian() {
+        List<BigDecimal> sorted = new ArrayList<>(decimals);
+        Collections.sort(sorted);
+        int half = sorted.size() / 2;
+        return sorted.get(half).add(sorted.get(half - 1)).divide(BigDecimal.valueOf(2D)).doubleValue();
+    }
+
+    @Benchmark
+    public double median() {
+        return VariousUtils.median(decimals);
+    }
+
+    @Benchmark
+    public double primitiveMedian() {
+        return MyStatistics.median(values);
+    }
+
+    @Benchmark
+    public double sketchMedian() {
+        QuantileSketch sketch = new QuantileSketch();
+        for (double value : values) {
+            sketch.accept(value);
+        }
+        return sketch.quantile(0.5D);
+    }
+
+    @Benchmark
+    public double calculateSD() {
+        return VariousUtils.calculateSD(boxed, mean, size);
+    }
+
+    @Benchmark
+    public double summarize() {
+        return MyStatistics.summarize(values).getStandardDeviation();
+    }
+
+}
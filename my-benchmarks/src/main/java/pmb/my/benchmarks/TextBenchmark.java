@@ -0,0 +1,105 @@
+package pmb.my.benchmarks;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import pmb.my.starter.utils.LineCleaner;
+import pmb.my.starter.utils.MyConstant;
+import pmb.my.starter.utils.TextNormalizer;
+import pmb.my.starter.utils.VariousUtils;
+
+/**
+ * Benchmarks of text cleaning: {@link VariousUtils#cleanLine(String, java.util.Set)} compared to a compiled {@link LineCleaner}, and
+ * {@link VariousUtils#removePunctuation(String)} compared to its former regex based implementation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextBenchmark {
+
+    private static final String[] WORDS = { "The", "Rolling", "Stones", "feat.", "Live", "(Remastered)", "-", "Part", "II", "l'été", "&", "Co" };
+
+    @Param({ "200" })
+    private int rules;
+
+    @Param({ "1000" })
+    private int lineCount;
+
+    private List<String> lines;
+    private Map<String, String> replacements;
+    private LineCleaner cleaner;
+    private UnaryOperator<String> cachedNormalizer;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        lines = IntStream.range(0, lineCount).mapToObj(i -> {
+            StringBuilder line = new StringBuilder();
+            for (int j = 0; j < 8; j++) {
+                line.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(5) == 0 ? ", " : " ");
+            }
+            return line.toString();
+        }).toList();
+        replacements = new LinkedHashMap<>();
+        for (int i = 0; i < rules - 3; i++) {
+            replacements.put("#" + i + "#", "");
+        }
+        replacements.put("feat.", "featuring");
+        replacements.put("(Remastered)", "");
+        replacements.put("&", "and");
+        cleaner = LineCleaner.compile(replacements);
+        cachedNormalizer = TextNormalizer.cached(lineCount);
+    }
+
+    @Benchmark
+    public void cleanLine(Blackhole blackhole) {
+        lines.forEach(line -> blackhole.consume(VariousUtils.cleanLine(line, replacements.entrySet())));
+    }
+
+    @Benchmark
+    public void lineCleaner(Blackhole blackhole) {
+        lines.forEach(line -> blackhole.consume(cleaner.clean(line)));
+    }
+
+    @Benchmark
+    public void legacyRemovePunctuation(Blackhole blackhole) {
+        lines.forEach(line -> {
+            String trim = StringUtils.trim(line);
+            String res = MyConstant.PATTERN_PUNCTUATION.matcher(trim).replaceAll("").toLowerCase();
+            blackhole.consume(StringUtils.isBlank(res) ? trim : res);
+        });
+    }
+
+    @Benchmark
+    public void removePunctuation(Blackhole blackhole) {
+        lines.forEach(line -> blackhole.consume(VariousUtils.removePunctuation(line)));
+    }
+
+    @Benchmark
+    public void cachedRemovePunctuation(Blackhole blackhole) {
+        lines.forEach(line -> blackhole.consume(cachedNormalizer.apply(line)));
+    }
+
+}
@@ -0,0 +1,75 @@
+package pmb.my.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import pmb.my.starter.utils.MyConstant;
+import pmb.my.starter.utils.Transcoder;
+
+/**
+ * Benchmarks of Cp1252 to UTF-8 conversion: {@link Transcoder} compared to decoding into a string and encoding it back.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TranscoderBenchmark {
+
+    private static final String ACCENTED = "éèàçù€’œ";
+
+    /**
+     * Percentage of non ASCII characters.
+     */
+    @Param({ "0", "5", "50" })
+    private int nonAscii;
+
+    @Param({ "1048576" })
+    private int size;
+
+    private byte[] cp1252;
+    private ByteBuffer src;
+    private ByteBuffer dst;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder(size);
+        for (int i = 0; i < size; i++) {
+            text.append(random.nextInt(100) < nonAscii ? ACCENTED.charAt(random.nextInt(ACCENTED.length())) : (char) ('a' + random.nextInt(26)));
+        }
+        cp1252 = text.toString().getBytes(MyConstant.ANSI_CHARSET);
+        src = ByteBuffer.wrap(cp1252);
+        dst = ByteBuffer.allocate(size * 3);
+    }
+
+    @Benchmark
+    public byte[] decodeEncode() {
+        return new String(cp1252, MyConstant.ANSI_CHARSET).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ByteBuffer transcoder() throws CharacterCodingException {
+        src.clear();
+        dst.clear();
+        Transcoder.cp1252ToUtf8(src, dst);
+        return dst;
+    }
+
+}
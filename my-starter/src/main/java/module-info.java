@@ -3,9 +3,11 @@ module pmb.my.starter {
     requires java.desktop;
     requires transitive org.apache.commons.lang3;
     requires transitive org.apache.logging.log4j;
-    requires org.apache.logging.log4j.core;
+    requires transitive org.apache.logging.log4j.core;
 
     exports pmb.my.starter.exception;
+    exports pmb.my.starter.logging;
+    exports pmb.my.starter.metrics;
     exports pmb.my.starter.utils;
 
 }
\ No newline at end of file
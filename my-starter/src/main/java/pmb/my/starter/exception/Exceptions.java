@@ -0,0 +1,81 @@
+package pmb.my.starter.exception;
+
+/**
+ * Creates the exceptions thrown on hot paths of the library, like failing to read one file out of many, with or without stack trace depending on
+ * a global setting.
+ * <p>
+ * Capturing the stack trace is most of the cost of an exception, and dominates under bursts of errors. Stack traces are captured by default;
+ * disable them with {@link #setStackless(boolean)} or the {@value #STACKLESS_PROPERTY} system property. Causes keep their own stack trace.
+ */
+public final class Exceptions {
+
+    /**
+     * System property enabling stackless exceptions at startup.
+     */
+    public static final String STACKLESS_PROPERTY = "my.starter.exception.stackless";
+
+    private static volatile boolean stackless = Boolean.getBoolean(STACKLESS_PROPERTY);
+
+    private Exceptions() {
+        throw new AssertionError("Must not be used");
+    }
+
+    /**
+     * @return true if exceptions created here have no stack trace
+     */
+    public static boolean isStackless() {
+        return stackless;
+    }
+
+    /**
+     * Chooses whether exceptions created here capture their stack trace.
+     *
+     * @param stackless true to skip stack traces
+     */
+    public static void setStackless(boolean stackless) {
+        Exceptions.stackless = stackless;
+    }
+
+    /**
+     * Creates a runtime exception.
+     *
+     * @param message error message
+     * @return the exception, to throw
+     */
+    public static MinorException minor(String message) {
+        return new MinorException(message, null, !stackless);
+    }
+
+    /**
+     * Creates a runtime exception with a cause.
+     *
+     * @param message error message
+     * @param cause error cause
+     * @return the exception, to throw
+     */
+    public static MinorException minor(String message, Throwable cause) {
+        return new MinorException(message, cause, !stackless);
+    }
+
+    /**
+     * Creates a checked exception.
+     *
+     * @param message error message
+     * @return the exception, to throw
+     */
+    public static MajorException major(String message) {
+        return new MajorException(message, null, !stackless);
+    }
+
+    /**
+     * Creates a checked exception with a cause.
+     *
+     * @param message error message
+     * @param cause error cause
+     * @return the exception, to throw
+     */
+    public static MajorException major(String message, Throwable cause) {
+        return new MajorException(message, cause, !stackless);
+    }
+
+}
@@ -31,6 +31,20 @@ public class MajorException
         super(message, throwable);
     }
 
+    /**
+     * Constructor choosing whether the stack trace is captured. Without stack trace, creating the exception is much cheaper, which matters when
+     * many are thrown, but it shows no origin when logged.
+     *
+     * @param message error message
+     * @param throwable error cause, may be null
+     * @param writableStackTrace false to skip the stack trace
+     * @see Exception#Exception(String, Throwable, boolean, boolean)
+     * @see Exceptions
+     */
+    public MajorException(String message, Throwable throwable, boolean writableStackTrace) {
+        super(message, throwable, true, writableStackTrace);
+    }
+
     /**
      * Empty constructor.
      *
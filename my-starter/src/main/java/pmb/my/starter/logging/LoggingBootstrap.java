@@ -0,0 +1,135 @@
+package pmb.my.starter.logging;
+
+import java.nio.file.Path;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.ConsoleAppender;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.apache.logging.log4j.core.config.builder.api.ComponentBuilder;
+import org.apache.logging.log4j.core.config.builder.api.ConfigurationBuilder;
+import org.apache.logging.log4j.core.config.builder.api.ConfigurationBuilderFactory;
+import org.apache.logging.log4j.core.config.builder.api.LayoutComponentBuilder;
+import org.apache.logging.log4j.core.config.builder.api.LoggerComponentBuilder;
+import org.apache.logging.log4j.core.config.builder.api.RootLoggerComponentBuilder;
+import org.apache.logging.log4j.core.config.builder.impl.BuiltConfiguration;
+
+import pmb.my.starter.utils.MyConstant;
+import pmb.my.starter.utils.MyProperties;
+import pmb.my.starter.utils.VariousUtils;
+
+/**
+ * Configures Log4j programmatically, replacing any configuration file: events go to a rolling {@link MyConstant#FILE_LOG_PATH log file} and
+ * optionally to the console.
+ * <p>
+ * Loggers are asynchronous: the calling thread only puts the event in a ring buffer, a background thread formats and writes it. The layout only
+ * uses garbage-free converters, and the file is written through a {@code RollingRandomAccessFile} appender flushed at the end of each batch of
+ * events. The file rolls over each day or when it reaches {@value #MAX_FILE_SIZE}, old files being compressed in the background.
+ * <p>
+ * The level of the application loggers can then be changed at runtime with the {@code level} property of {@link MyProperties}, or with
+ * {@link VariousUtils#setLogLevel(String)}.
+ */
+public final class LoggingBootstrap {
+
+    /**
+     * Layout of the events, with garbage-free converters only.
+     */
+    public static final String PATTERN = "%d{DEFAULT} %-5level [%t] %logger{1.} - %msg%n";
+
+    /**
+     * Size after which the log file rolls over.
+     */
+    public static final String MAX_FILE_SIZE = "10 MB";
+
+    /**
+     * Number of rolled over files kept.
+     */
+    public static final int MAX_FILES = 10;
+
+    private static final String FILE_APPENDER = "file";
+    private static final String CONSOLE_APPENDER = "console";
+    private static final String DISRUPTOR_CLASS = "com.lmax.disruptor.RingBuffer";
+
+    private LoggingBootstrap() {
+        throw new AssertionError("Must not be used");
+    }
+
+    /**
+     * Configures asynchronous logging in {@link MyConstant#FILE_LOG_PATH} and the console, at {@code INFO} level.
+     *
+     * @return the reconfigured context
+     */
+    public static LoggerContext init() {
+        return init(Path.of(MyConstant.FILE_LOG_PATH), Level.INFO, true, true);
+    }
+
+    /**
+     * Configures logging.
+     *
+     * @param logFile file receiving the events, rolled over files are written next to it
+     * @param level of all loggers
+     * @param async true for asynchronous loggers, if the LMAX disruptor is on the classpath
+     * @param console true to also log to the standard output
+     * @return the reconfigured context
+     */
+    public static LoggerContext init(Path logFile, Level level, boolean async, boolean console) {
+        boolean disruptor = isDisruptorAvailable();
+        boolean asyncLoggers = async && disruptor;
+        ConfigurationBuilder<BuiltConfiguration> builder = ConfigurationBuilderFactory.newConfigurationBuilder();
+        builder.setConfigurationName("my-starter");
+        builder.setStatusLevel(Level.WARN);
+        LayoutComponentBuilder layout = builder.newLayout("PatternLayout").addAttribute("pattern", PATTERN);
+
+        String fileName = logFile.toAbsolutePath().toString();
+        String baseName = StringUtils.removeEnd(fileName, ".log");
+        ComponentBuilder<?> policies = builder.newComponent("Policies")
+                .addComponent(builder.newComponent("TimeBasedTriggeringPolicy"))
+                .addComponent(builder.newComponent("SizeBasedTriggeringPolicy").addAttribute("size", MAX_FILE_SIZE));
+        builder.add(builder.newAppender(FILE_APPENDER, "RollingRandomAccessFile")
+                .addAttribute("fileName", fileName)
+                // The .gz extension makes the rollover compress files, in a background thread
+                .addAttribute("filePattern", baseName + "-%d{yyyy-MM-dd}-%i.log.gz")
+                // Async loggers flush at the end of each batch, sync ones on each event
+                .addAttribute("immediateFlush", !asyncLoggers)
+                .add(layout)
+                .addComponent(policies)
+                .addComponent(builder.newComponent("DefaultRolloverStrategy").addAttribute("max", MAX_FILES)));
+        if (console) {
+            builder.add(builder.newAppender(CONSOLE_APPENDER, "Console").addAttribute("target", ConsoleAppender.Target.SYSTEM_OUT).add(layout));
+        }
+
+        RootLoggerComponentBuilder root = asyncLoggers ? builder.newAsyncRootLogger(level) : builder.newRootLogger(level);
+        root.add(builder.newAppenderRef(FILE_APPENDER));
+        if (console) {
+            root.add(builder.newAppenderRef(CONSOLE_APPENDER));
+        }
+        builder.add(root);
+        // Declared so that changing its level keeps it asynchronous, otherwise a synchronous one would be created
+        LoggerComponentBuilder application = asyncLoggers ? builder.newAsyncLogger(MyConstant.PACKAGE_NAME, level)
+                : builder.newLogger(MyConstant.PACKAGE_NAME, level);
+        builder.add(application);
+
+        BuiltConfiguration configuration = builder.build();
+        // Starts the context with this configuration if not started yet, without looking for a configuration file
+        LoggerContext context = Configurator.initialize(configuration);
+        if (context.getConfiguration() != configuration) {
+            Configurator.reconfigure(configuration);
+        }
+        if (async && !disruptor) {
+            LogManager.getLogger(LoggingBootstrap.class).warn("LMAX disruptor not found, loggers are synchronous");
+        }
+        return context;
+    }
+
+    private static boolean isDisruptorAvailable() {
+        try {
+            Class.forName(DISRUPTOR_CLASS, false, LoggingBootstrap.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,44 @@
+package pmb.my.starter.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts events or bytes, cheaply under contention. Does nothing while {@link Metrics} are disabled.
+ */
+public final class Counter {
+
+    private final LongAdder adder = new LongAdder();
+
+    Counter() {
+    }
+
+    /**
+     * Adds one.
+     */
+    public void increment() {
+        add(1L);
+    }
+
+    /**
+     * Adds the given amount.
+     *
+     * @param amount to add
+     */
+    public void add(long amount) {
+        if (Metrics.isEnabled()) {
+            adder.add(amount);
+        }
+    }
+
+    /**
+     * @return current total
+     */
+    public long get() {
+        return adder.sum();
+    }
+
+    void reset() {
+        adder.reset();
+    }
+
+}
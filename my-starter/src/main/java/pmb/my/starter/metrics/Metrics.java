@@ -0,0 +1,244 @@
+package pmb.my.starter.metrics;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pmb.my.starter.metrics.LatencyHistogram.HistogramSnapshot;
+
+/**
+ * Registry of counters and latency histograms recorded by the library: file reads, writes, zips, folder scans and properties loads.
+ * <p>
+ * Metrics are disabled by default, recording then costs a volatile read. Enable them with {@link #setEnabled(boolean)} or the
+ * {@value #ENABLED_PROPERTY} system property. To time an operation:
+ *
+ * <pre>
+ * long start = Metrics.start();
+ * ...
+ * HISTOGRAM.recordSince(start);
+ * </pre>
+ */
+public final class Metrics {
+
+    private static final Logger LOG = LogManager.getLogger(Metrics.class);
+
+    /**
+     * System property enabling metrics at startup.
+     */
+    public static final String ENABLED_PROPERTY = "my.starter.metrics";
+
+    /**
+     * Histogram of file reads, counted from opening to the end of reading.
+     */
+    public static final String FILE_READ = "file.read";
+
+    /**
+     * Counter of bytes of the files read.
+     */
+    public static final String FILE_READ_BYTES = "file.read.bytes";
+
+    /**
+     * Histogram of file writes.
+     */
+    public static final String FILE_WRITE = "file.write";
+
+    /**
+     * Counter of bytes written in files.
+     */
+    public static final String FILE_WRITE_BYTES = "file.write.bytes";
+
+    /**
+     * Histogram of zip archives creation.
+     */
+    public static final String ZIP = "zip";
+
+    /**
+     * Counter of bytes read to be zipped.
+     */
+    public static final String ZIP_BYTES_READ = "zip.bytes.read";
+
+    /**
+     * Counter of bytes of the zip archives written.
+     */
+    public static final String ZIP_BYTES_WRITTEN = "zip.bytes.written";
+
+    /**
+     * Histogram of folder listings.
+     */
+    public static final String FOLDER_SCAN = "folder.scan";
+
+    /**
+     * Counter of files found by folder listings.
+     */
+    public static final String FOLDER_SCAN_FILES = "folder.scan.files";
+
+    /**
+     * Histogram of properties loads and reloads.
+     */
+    public static final String PROPERTIES_LOAD = "properties.load";
+
+    /**
+     * Histogram of duplicate file searches.
+     */
+    public static final String DUPLICATE_SEARCH = "duplicate.search";
+
+    /**
+     * Counter of bytes read to hash files when searching duplicates.
+     */
+    public static final String DUPLICATE_HASHED_BYTES = "duplicate.hashed.bytes";
+
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+    private static final Object LOCK = new Object();
+
+    private static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+    /**
+     * Logs snapshots periodically, null if not logging.
+     */
+    private static ScheduledExecutorService logger;
+
+    private Metrics() {
+        throw new AssertionError("Must not be used");
+    }
+
+    /**
+     * @return true if metrics are recorded
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables recording, already recorded values are kept.
+     *
+     * @param enabled true to record metrics
+     */
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    /**
+     * Gets or creates a counter.
+     *
+     * @param name of the counter
+     * @return the counter with this name
+     */
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, key -> new Counter());
+    }
+
+    /**
+     * Gets or creates a latency histogram.
+     *
+     * @param name of the histogram
+     * @return the histogram with this name
+     */
+    public static LatencyHistogram histogram(String name) {
+        return HISTOGRAMS.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    /**
+     * Starts timing an operation.
+     *
+     * @return the current time in nanoseconds to give to {@link LatencyHistogram#recordSince(long)}, 0 if metrics are disabled
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Takes a snapshot of all metrics.
+     *
+     * @return current values, sorted by name
+     */
+    public static MetricsSnapshot snapshot() {
+        Map<String, Long> counters = new TreeMap<>();
+        COUNTERS.forEach((name, counter) -> counters.put(name, counter.get()));
+        Map<String, HistogramSnapshot> histograms = new TreeMap<>();
+        HISTOGRAMS.forEach((name, histogram) -> histograms.put(name, histogram.snapshot()));
+        return new MetricsSnapshot(Instant.now(), counters, histograms);
+    }
+
+    /**
+     * Resets all metrics to 0.
+     */
+    public static void reset() {
+        COUNTERS.values().forEach(Counter::reset);
+        HISTOGRAMS.values().forEach(LatencyHistogram::reset);
+    }
+
+    /**
+     * Starts logging a snapshot of metrics at info level periodically, if not already logging.
+     *
+     * @param period time between two logs
+     */
+    public static void startLogging(Duration period) {
+        synchronized (LOCK) {
+            if (logger != null) {
+                return;
+            }
+            logger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "my-metrics-logger");
+                thread.setDaemon(true);
+                return thread;
+            });
+            logger.scheduleAtFixedRate(() -> LOG.info("Metrics:{}{}", System.lineSeparator(), snapshot()), period.toMillis(), period.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops logging metrics.
+     */
+    public static void stopLogging() {
+        synchronized (LOCK) {
+            if (logger != null) {
+                logger.shutdownNow();
+                logger = null;
+            }
+        }
+    }
+
+    /**
+     * Values of all metrics at a given time.
+     *
+     * @param time when the snapshot was taken
+     * @param counters counters total by name
+     * @param histograms histograms state by name
+     */
+    public record MetricsSnapshot(Instant time, Map<String, Long> counters, Map<String, HistogramSnapshot> histograms) {
+
+        /**
+         * Constructor, copying the maps.
+         */
+        public MetricsSnapshot {
+            counters = Map.copyOf(counters);
+            histograms = Map.copyOf(histograms);
+        }
+
+        /**
+         * Formats metrics, one per line, sorted by name and durations in milliseconds.
+         */
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            new TreeMap<>(counters).forEach((name, value) -> builder.append(name).append(": ").append(value).append(System.lineSeparator()));
+            new TreeMap<>(histograms).forEach((name, histogram) -> builder.append(name)
+                    .append(String.format(": count=%d mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms p999=%.3fms max=%.3fms", histogram.count(),
+                            histogram.mean() / 1e6, histogram.p50() / 1e6, histogram.p90() / 1e6, histogram.p99() / 1e6, histogram.p999() / 1e6,
+                            histogram.max() / 1e6))
+                    .append(System.lineSeparator()));
+            return builder.toString();
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package pmb.my.starter.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import pmb.my.starter.exception.Exceptions;
+import pmb.my.starter.exception.MajorException;
+
+/**
+ * Outcome of an operation on many items, where each item succeeds or fails on its own: batch utilities record failures here instead of stopping
+ * at the first one. Items must be distinct, results and failures are kept in the order they were added. Thread-safe.
+ *
+ * @param <T> type of the items, like {@link java.io.File}
+ * @param <R> type of the result of an item
+ */
+public final class BatchResult<T, R> {
+
+    private final Map<T, R> results = new LinkedHashMap<>();
+    private final List<Failure<T>> failures = new ArrayList<>();
+
+    /**
+     * Constructor of an empty result, filled as items are processed.
+     */
+    public BatchResult() {
+        // Nothing processed yet
+    }
+
+    /**
+     * Records the result of an item.
+     *
+     * @param item processed
+     * @param result of the item
+     */
+    public synchronized void succeeded(T item, R result) {
+        results.put(item, result);
+    }
+
+    /**
+     * Records the failure of an item.
+     *
+     * @param item processed
+     * @param error why it failed
+     */
+    public synchronized void failed(T item, Exception error) {
+        failures.add(new Failure<>(item, error));
+    }
+
+    /**
+     * @return results by item, of the succeeded items
+     */
+    public synchronized Map<T, R> getResults() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(results));
+    }
+
+    /**
+     * @return failed items with their error
+     */
+    public synchronized List<Failure<T>> getFailures() {
+        return List.copyOf(failures);
+    }
+
+    /**
+     * @return true if at least one item failed
+     */
+    public synchronized boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    /**
+     * Throws the failures if any, as a single exception: its cause is the first failure, the others being suppressed exceptions.
+     *
+     * @return the results, if no item failed
+     * @throws MajorException if an item failed
+     */
+    public synchronized Map<T, R> getResultsOrThrow() throws MajorException {
+        if (!failures.isEmpty()) {
+            MajorException exception = Exceptions.major(failures.size() + " item(s) failed, first: " + failures.get(0).item(),
+                    failures.get(0).error());
+            failures.stream().skip(1).map(Failure::error).forEach(exception::addSuppressed);
+            throw exception;
+        }
+        return getResults();
+    }
+
+    /**
+     * Failure of an item.
+     *
+     * @param <T> type of the item
+     * @param item that failed
+     * @param error why it failed
+     */
+    public record Failure<T>(T item, Exception error) {
+    }
+
+}
@@ -0,0 +1,39 @@
+package pmb.my.starter.utils;
+
+import java.util.Optional;
+
+import org.apache.commons.lang3.BooleanUtils;
+
+/**
+ * A {@code boolean} property, parsed once per properties change. Accepts {@code true/false}, {@code yes/no}, {@code on/off} and {@code y/n}, ignoring
+ * case.
+ *
+ * @see PropertyHandle
+ */
+public final class BooleanProperty
+    extends PropertyHandle<Boolean> {
+
+    /**
+     * Constructor.
+     *
+     * @param key id of the property
+     * @param defaultValue value used when the property is blank, missing or invalid
+     */
+    public BooleanProperty(String key, boolean defaultValue) {
+        super(key, defaultValue);
+    }
+
+    @Override
+    protected Boolean parse(String value) {
+        return Optional.ofNullable(BooleanUtils.toBooleanObject(value))
+                .orElseThrow(() -> new IllegalArgumentException("Not a boolean: " + value));
+    }
+
+    /**
+     * @return the property value or the default one
+     */
+    public boolean get() {
+        return value();
+    }
+
+}
@@ -0,0 +1,10 @@
+package pmb.my.starter.utils;
+
+import pmb.my.starter.exception.MajorException;
+
+@FunctionalInterface
+public interface CallableThrowing<T> {
+
+	T call() throws MajorException;
+
+}
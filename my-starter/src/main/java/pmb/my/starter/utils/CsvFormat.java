@@ -0,0 +1,59 @@
+package pmb.my.starter.utils;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Dialect of a CSV file, read by {@link CsvReader} and written by {@link CsvWriter}.
+ *
+ * @param separator between fields
+ * @param quote surrounding fields containing a separator, a quote or a line break, doubled inside them
+ * @param decimalSeparator used when writing decimals, both {@code .} and {@code ,} are accepted when reading
+ * @param charset encoding of the file
+ */
+public record CsvFormat(char separator, char quote, char decimalSeparator, Charset charset) {
+
+    /**
+     * Format of RFC 4180: comma separated, UTF-8.
+     */
+    public static final CsvFormat RFC_4180 = new CsvFormat(',', '"', '.', StandardCharsets.UTF_8);
+
+    /**
+     * Format of Excel with a French locale: semicolon separated, comma decimals, {@link MyConstant#ANSI_CHARSET ANSI} encoding.
+     */
+    public static final CsvFormat ANSI = new CsvFormat(';', '"', ',', MyConstant.ANSI_CHARSET);
+
+    /**
+     * Constructor.
+     *
+     * @param separator between fields
+     * @param quote surrounding fields containing a separator, a quote or a line break
+     * @param decimalSeparator used when writing decimals
+     * @param charset encoding of the file
+     */
+    public CsvFormat {
+        if (separator == quote || separator == '\r' || separator == '\n' || quote == '\r' || quote == '\n') {
+            throw new IllegalArgumentException("Invalid separator or quote: " + separator + quote);
+        }
+        if (charset == null) {
+            throw new IllegalArgumentException("Charset is required");
+        }
+    }
+
+    /**
+     * @param separator new separator
+     * @return a copy of this format with the given separator
+     */
+    public CsvFormat withSeparator(char separator) {
+        return new CsvFormat(separator, quote, decimalSeparator, charset);
+    }
+
+    /**
+     * @param charset new encoding
+     * @return a copy of this format with the given encoding
+     */
+    public CsvFormat withCharset(Charset charset) {
+        return new CsvFormat(separator, quote, decimalSeparator, charset);
+    }
+
+}
@@ -0,0 +1,601 @@
+package pmb.my.starter.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import pmb.my.starter.exception.MinorException;
+import pmb.my.starter.metrics.Counter;
+import pmb.my.starter.metrics.LatencyHistogram;
+import pmb.my.starter.metrics.Metrics;
+
+/**
+ * Streaming reader of CSV files following RFC 4180: fields may be quoted, quoted fields may contain separators, line breaks and doubled quotes.
+ * Records end with {@code \n}, {@code \r\n} or {@code \r}, empty lines are skipped. Text after the closing quote of a field is kept as is.
+ * <p>
+ * Records are read one at a time with {@link #next()} into a reused buffer, a field only becomes a {@link String} when asked with
+ * {@link #get(int)}. Numbers are parsed directly from the buffer. With {@link #select(int...)} only the given columns are kept, the other fields
+ * are skipped without being copied.
+ *
+ * <pre>
+ * try (CsvReader reader = CsvReader.open(file, CsvFormat.ANSI)) {
+ *     reader.readHeader();
+ *     reader.select("id", "price");
+ *     while (reader.next()) {
+ *         long id = reader.getLong(0, -1L);
+ *         double price = reader.getDouble(1, Double.NaN);
+ *     }
+ * }
+ * </pre>
+ *
+ * Not thread-safe.
+ *
+ * @see CsvWriter
+ */
+public final class CsvReader
+    implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final char BOM = '\uFEFF';
+
+    private static final LatencyHistogram READ_TIME = Metrics.histogram(Metrics.FILE_READ);
+    private static final Counter READ_BYTES = Metrics.counter(Metrics.FILE_READ_BYTES);
+
+    /**
+     * Type of a column read by {@link CsvReader#readColumns(long, double, ColumnType...)}.
+     */
+    public enum ColumnType {
+        /**
+         * Integers, in a {@code long[]}.
+         */
+        LONG,
+        /**
+         * Decimals with {@code .} or {@code ,} separator, in a {@code double[]}.
+         */
+        DOUBLE,
+        /**
+         * Text, in a list of {@link String}.
+         */
+        STRING
+    }
+
+    private final Reader in;
+    private final File file;
+    private final char separator;
+    private final char quote;
+    private final long start;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean firstFill = true;
+
+    /**
+     * Selected field of each column, -1 if skipped. Null if all columns are kept.
+     */
+    private int[] selection;
+    private int fieldCount;
+    private char[] chars = new char[256];
+    private CharBuffer view = CharBuffer.wrap(chars);
+    private int length;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private long recordNumber;
+    private List<String> header;
+
+    private CsvReader(Reader in, File file, CsvFormat format, long start) {
+        this.in = in;
+        this.file = file;
+        this.separator = format.separator();
+        this.quote = format.quote();
+        this.start = start;
+    }
+
+    /**
+     * Opens a CSV file, with the charset of the given format.
+     *
+     * @param file to read
+     * @param format of the file
+     * @return an opened reader, to close after use
+     */
+    public static CsvReader open(File file, CsvFormat format) {
+        long start = Metrics.start();
+        try {
+            return new CsvReader(new InputStreamReader(Files.newInputStream(file.toPath()), format.charset().newDecoder()), file, format, start);
+        } catch (IOException e) {
+            throw new MinorException("Error when opening file: " + file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Reads CSV from the given characters, the charset of the format is ignored.
+     *
+     * @param reader source of the characters, closed with this reader
+     * @param format separator and quote
+     * @return a reader, to close after use
+     */
+    public static CsvReader of(Reader reader, CsvFormat format) {
+        return new CsvReader(reader, null, format, 0L);
+    }
+
+    /**
+     * Reads the first record as header, all its fields being kept. Must be called before any other record is read.
+     *
+     * @return names of the columns, empty if there's no record
+     */
+    public List<String> readHeader() {
+        if (recordNumber > 0 || selection != null) {
+            throw new IllegalStateException("Header must be read first");
+        }
+        List<String> names = new ArrayList<>();
+        if (next()) {
+            for (int i = 0; i < fieldCount; i++) {
+                names.add(get(i));
+            }
+        }
+        header = Collections.unmodifiableList(names);
+        return header;
+    }
+
+    /**
+     * Keeps only the given columns of the next records, field {@code i} being column {@code columns[i]}.
+     *
+     * @param columns indexes of the columns, from 0
+     * @return this reader
+     */
+    public CsvReader select(int... columns) {
+        int max = Arrays.stream(columns).max().orElse(-1);
+        int[] fields = new int[max + 1];
+        Arrays.fill(fields, -1);
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i] < 0 || fields[columns[i]] >= 0) {
+                throw new IllegalArgumentException("Invalid or duplicate column: " + columns[i]);
+            }
+            fields[columns[i]] = i;
+        }
+        selection = fields;
+        fieldCount = columns.length;
+        starts = new int[Math.max(1, fieldCount)];
+        ends = new int[starts.length];
+        return this;
+    }
+
+    /**
+     * Keeps only the given columns of the next records, field {@code i} being column {@code names[i]}. The header must have been read.
+     *
+     * @param names of the columns, as in the header
+     * @return this reader
+     * @throws MinorException if a column isn't in the header
+     */
+    public CsvReader select(String... names) {
+        if (header == null) {
+            throw new IllegalStateException("Header must be read to select columns by name");
+        }
+        int[] columns = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            columns[i] = header.indexOf(names[i]);
+            if (columns[i] < 0) {
+                throw new MinorException("Unknown column '" + names[i] + "' in " + describe());
+            }
+        }
+        return select(columns);
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return false if the end of the input is reached
+     * @throws MinorException if reading fails or if a quoted field isn't closed
+     */
+    public boolean next() {
+        try {
+            while (true) {
+                if (position == limit && !fill()) {
+                    return false;
+                }
+                char c = buffer[position];
+                if (c != '\n' && c != '\r') {
+                    break;
+                }
+                position++;
+            }
+            readRecord();
+            recordNumber++;
+            return true;
+        } catch (IOException e) {
+            throw new MinorException("Error when reading " + describe(), e);
+        }
+    }
+
+    /**
+     * @return number of fields of the current record: the number of selected columns, or all the fields of the record if none were selected
+     */
+    public int size() {
+        return fieldCount;
+    }
+
+    /**
+     * @return number of records read, header included
+     */
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    /**
+     * Gets a field of the current record.
+     *
+     * @param field index in the selected columns
+     * @return the value, null if the record has fewer columns
+     */
+    public String get(int field) {
+        if (isMissing(field)) {
+            return null;
+        }
+        return starts[field] < 0 ? null : new String(chars, starts[field], ends[field] - starts[field]);
+    }
+
+    /**
+     * Parses a field of the current record as an integer, surrounding whitespaces being ignored.
+     *
+     * @param field index in the selected columns
+     * @param defaultValue if the field is missing, blank or invalid
+     * @return the parsed value or the default one
+     * @see NumberParser#parseLong(CharSequence, int, int, long)
+     */
+    public long getLong(int field, long defaultValue) {
+        if (isMissing(field)) {
+            return defaultValue;
+        }
+        int begin = trimStart(field);
+        return begin < 0 ? defaultValue : NumberParser.parseLong(view, begin, trimEnd(field, begin), defaultValue);
+    }
+
+    /**
+     * Parses a field of the current record as a decimal, with {@code .} or {@code ,} separator.
+     *
+     * @param field index in the selected columns
+     * @param defaultValue if the field is missing, blank or invalid
+     * @return the parsed value or the default one
+     * @see NumberParser#parseDecimal(CharSequence, int, int, double)
+     */
+    public double getDouble(int field, double defaultValue) {
+        if (isMissing(field)) {
+            return defaultValue;
+        }
+        int begin = trimStart(field);
+        return begin < 0 ? defaultValue : NumberParser.parseDecimal(view, begin, trimEnd(field, begin), defaultValue);
+    }
+
+    /**
+     * @return true if the current record has fewer fields than the given index
+     * @throws IndexOutOfBoundsException if the index is negative
+     */
+    private boolean isMissing(int field) {
+        if (field < 0) {
+            throw new IndexOutOfBoundsException("Negative field index: " + field);
+        }
+        return field >= fieldCount;
+    }
+
+    /**
+     * Reads all the remaining records into columns, field {@code i} being parsed as {@code types[i]}.
+     *
+     * @param longDefault value of missing, blank or invalid {@link ColumnType#LONG} fields
+     * @param doubleDefault value of missing, blank or invalid {@link ColumnType#DOUBLE} fields
+     * @param types of the fields to read, from the first one
+     * @return the read columns
+     */
+    public Columns readColumns(long longDefault, double doubleDefault, ColumnType... types) {
+        Object[] values = new Object[types.length];
+        int capacity = 1024;
+        for (int i = 0; i < types.length; i++) {
+            values[i] = switch (types[i]) {
+                case LONG -> new long[capacity];
+                case DOUBLE -> new double[capacity];
+                case STRING -> new ArrayList<String>();
+            };
+        }
+        int rows = 0;
+        while (next()) {
+            if (rows == capacity) {
+                capacity *= 2;
+                for (int i = 0; i < types.length; i++) {
+                    values[i] = grow(values[i], capacity);
+                }
+            }
+            for (int i = 0; i < types.length; i++) {
+                switch (types[i]) {
+                    case LONG -> ((long[]) values[i])[rows] = getLong(i, longDefault);
+                    case DOUBLE -> ((double[]) values[i])[rows] = getDouble(i, doubleDefault);
+                    case STRING -> addString(values[i], get(i));
+                }
+            }
+            rows++;
+        }
+        for (int i = 0; i < types.length; i++) {
+            values[i] = grow(values[i], rows);
+        }
+        return new Columns(types, values, rows);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void addString(Object column, String value) {
+        ((List<String>) column).add(value);
+    }
+
+    private static Object grow(Object column, int size) {
+        if (column instanceof long[] longs) {
+            return Arrays.copyOf(longs, size);
+        } else if (column instanceof double[] doubles) {
+            return Arrays.copyOf(doubles, size);
+        }
+        return column;
+    }
+
+    @Override
+    public void close() {
+        try {
+            in.close();
+        } catch (IOException e) {
+            throw new MinorException("Error when closing " + describe(), e);
+        } finally {
+            if (start != 0L) {
+                READ_TIME.recordSince(start);
+                READ_BYTES.add(file.length());
+            }
+        }
+    }
+
+    private void readRecord() throws IOException {
+        length = 0;
+        int column = 0;
+        boolean end = false;
+        if (selection != null) {
+            Arrays.fill(starts, -1);
+        }
+        while (!end) {
+            int field;
+            if (selection == null) {
+                field = column;
+                ensureFields(column + 1);
+            } else {
+                field = column < selection.length ? selection[column] : -1;
+            }
+            end = readField(field);
+            column++;
+        }
+        if (selection == null) {
+            fieldCount = column;
+        }
+    }
+
+    /**
+     * Reads a field, starting at the current position.
+     *
+     * @param field where the value is kept, -1 to skip it
+     * @return true if the field ends the record
+     */
+    private boolean readField(int field) throws IOException {
+        boolean keep = field >= 0;
+        if (keep) {
+            starts[field] = length;
+            ends[field] = length;
+        }
+        if (position == limit && !fill()) {
+            return true;
+        }
+        if (buffer[position] == quote) {
+            position++;
+            if (readQuoted(keep)) {
+                if (keep) {
+                    ends[field] = length;
+                }
+                return true;
+            }
+        }
+        while (true) {
+            if (position == limit && !fill()) {
+                if (keep) {
+                    ends[field] = length;
+                }
+                return true;
+            }
+            int from = position;
+            char[] chunk = buffer;
+            int to = limit;
+            int i = from;
+            while (i < to) {
+                char c = chunk[i];
+                if (c == separator || c == '\n' || c == '\r') {
+                    break;
+                }
+                i++;
+            }
+            position = i;
+            if (keep) {
+                append(from, i);
+            }
+            if (i < to) {
+                break;
+            }
+        }
+        if (keep) {
+            ends[field] = length;
+        }
+        return skipDelimiter();
+    }
+
+    /**
+     * Reads a quoted value, after its opening quote, until its closing quote.
+     *
+     * @return true if the input ends right after the closing quote
+     */
+    private boolean readQuoted(boolean keep) throws IOException {
+        while (true) {
+            if (position == limit && !fill()) {
+                throw new MinorException("Unclosed quote in record " + (recordNumber + 1) + " of " + describe());
+            }
+            int from = position;
+            while (position < limit && buffer[position] != quote) {
+                position++;
+            }
+            if (keep) {
+                append(from, position);
+            }
+            if (position == limit) {
+                continue;
+            }
+            position++;
+            if (position == limit && !fill()) {
+                return true;
+            }
+            if (buffer[position] != quote) {
+                return false;
+            }
+            // Doubled quote
+            if (keep) {
+                append(position, position + 1);
+            }
+            position++;
+        }
+    }
+
+    /**
+     * Skips the separator or line break at the current position.
+     *
+     * @return true if it's a line break
+     */
+    private boolean skipDelimiter() throws IOException {
+        char c = buffer[position++];
+        if (c == separator) {
+            return false;
+        }
+        if (c == '\r' && (position < limit || fill()) && buffer[position] == '\n') {
+            position++;
+        }
+        return true;
+    }
+
+    private boolean fill() throws IOException {
+        int read;
+        do {
+            read = in.read(buffer);
+        } while (read == 0);
+        position = 0;
+        limit = Math.max(read, 0);
+        if (firstFill && limit > 0) {
+            firstFill = false;
+            if (buffer[0] == BOM) {
+                position = 1;
+                return position < limit || fill();
+            }
+        }
+        return limit > 0;
+    }
+
+    private void append(int from, int to) {
+        int count = to - from;
+        if (length + count > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, length + count));
+            view = CharBuffer.wrap(chars);
+        }
+        System.arraycopy(buffer, from, chars, length, count);
+        length += count;
+    }
+
+    private void ensureFields(int size) {
+        if (size > starts.length) {
+            starts = Arrays.copyOf(starts, starts.length * 2);
+            ends = Arrays.copyOf(ends, starts.length);
+        }
+    }
+
+    /**
+     * @return index of the first non whitespace character of the field, -1 if missing or blank
+     */
+    private int trimStart(int field) {
+        int begin = starts[field];
+        if (begin < 0) {
+            return -1;
+        }
+        while (begin < ends[field] && chars[begin] <= ' ') {
+            begin++;
+        }
+        return begin == ends[field] ? -1 : begin;
+    }
+
+    private int trimEnd(int field, int begin) {
+        int end = ends[field];
+        while (end > begin && chars[end - 1] <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private String describe() {
+        return file == null ? "CSV input" : "file: " + file.getAbsolutePath();
+    }
+
+    /**
+     * Columns read by {@link CsvReader#readColumns(long, double, ColumnType...)}.
+     */
+    public static final class Columns {
+
+        private final ColumnType[] types;
+        private final Object[] values;
+        private final int size;
+
+        private Columns(ColumnType[] types, Object[] values, int size) {
+            this.types = types;
+            this.values = values;
+            this.size = size;
+        }
+
+        /**
+         * @return number of rows
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @param field index of a {@link ColumnType#LONG} column
+         * @return its values
+         */
+        public long[] longs(int field) {
+            return (long[]) column(field, ColumnType.LONG);
+        }
+
+        /**
+         * @param field index of a {@link ColumnType#DOUBLE} column
+         * @return its values
+         */
+        public double[] doubles(int field) {
+            return (double[]) column(field, ColumnType.DOUBLE);
+        }
+
+        /**
+         * @param field index of a {@link ColumnType#STRING} column
+         * @return its values, null for missing fields
+         */
+        @SuppressWarnings("unchecked")
+        public List<String> strings(int field) {
+            return (List<String>) column(field, ColumnType.STRING);
+        }
+
+        private Object column(int field, ColumnType type) {
+            if (types[field] != type) {
+                throw new IllegalArgumentException("Column " + field + " is " + types[field] + ", not " + type);
+            }
+            return values[field];
+        }
+    }
+
+}
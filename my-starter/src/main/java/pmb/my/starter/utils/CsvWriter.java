@@ -0,0 +1,202 @@
+package pmb.my.starter.utils;
+
+import java.io.File;
+
+/**
+ * Buffered writer of CSV files following RFC 4180, through a {@link LineWriter}. Fields containing a separator, a quote or a line break are
+ * quoted, their quotes doubled. Records are separated by {@link System#lineSeparator()}.
+ * <p>
+ * Records are built field by field in a reused buffer, then written with {@link #endRecord()}:
+ *
+ * <pre>
+ * try (CsvWriter writer = CsvWriter.open(file, CsvFormat.ANSI, LineWriter.Mode.ATOMIC)) {
+ *     writer.writeRecord("id", "price");
+ *     writer.field(42L).field(9.99).endRecord();
+ *     writer.commit();
+ * }
+ * </pre>
+ *
+ * @see CsvReader
+ */
+public final class CsvWriter
+    implements AutoCloseable {
+
+    private final LineWriter writer;
+    private final char separator;
+    private final char quote;
+    private final char decimalSeparator;
+    private final StringBuilder record = new StringBuilder(256);
+    private boolean empty = true;
+
+    private CsvWriter(LineWriter writer, CsvFormat format) {
+        this.writer = writer;
+        this.separator = format.separator();
+        this.quote = format.quote();
+        this.decimalSeparator = format.decimalSeparator();
+    }
+
+    /**
+     * Opens a writer, with the charset of the given format.
+     *
+     * @param file to write into
+     * @param format of the file
+     * @param mode how the file is written
+     * @return an opened writer, to close after use
+     */
+    public static CsvWriter open(File file, CsvFormat format, LineWriter.Mode mode) {
+        return new CsvWriter(LineWriter.open(file, format.charset(), mode), format);
+    }
+
+    /**
+     * Adds a field to the current record, quoted if needed.
+     *
+     * @param value to write, null being an empty field
+     * @return this writer
+     */
+    public CsvWriter field(CharSequence value) {
+        startField();
+        if (value == null) {
+            return this;
+        }
+        if (!needsQuotes(value)) {
+            record.append(value);
+            return this;
+        }
+        record.append(quote);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == quote) {
+                record.append(quote);
+            }
+            record.append(c);
+        }
+        record.append(quote);
+        return this;
+    }
+
+    /**
+     * Adds an integer field to the current record.
+     *
+     * @param value to write
+     * @return this writer
+     */
+    public CsvWriter field(long value) {
+        startField();
+        record.append(value);
+        return this;
+    }
+
+    /**
+     * Adds a decimal field to the current record, with the decimal separator of the format.
+     *
+     * @param value to write, as {@link Double#toString(double)}
+     * @return this writer
+     */
+    public CsvWriter field(double value) {
+        String text = Double.toString(value);
+        return field(decimalSeparator == '.' ? text : text.replace('.', decimalSeparator));
+    }
+
+    /**
+     * Writes the current record and starts a new one.
+     *
+     * @return this writer
+     */
+    public CsvWriter endRecord() {
+        if (record.isEmpty() && !empty) {
+            // A single empty field, quoted to not be read as an empty line
+            record.append(quote).append(quote);
+        }
+        writer.write(record);
+        record.setLength(0);
+        empty = true;
+        return this;
+    }
+
+    /**
+     * Writes a whole record.
+     *
+     * @param fields values of the record
+     * @return this writer
+     */
+    public CsvWriter writeRecord(CharSequence... fields) {
+        for (CharSequence value : fields) {
+            field(value);
+        }
+        return endRecord();
+    }
+
+    /**
+     * Writes a whole record, values being converted with {@link String#valueOf(Object)} except null which gives an empty field.
+     *
+     * @param fields values of the record
+     * @return this writer
+     */
+    public CsvWriter writeRecord(Iterable<?> fields) {
+        for (Object value : fields) {
+            field(value == null ? null : String.valueOf(value));
+        }
+        return endRecord();
+    }
+
+    /**
+     * Writes the current record if not empty, then closes the file, publishing it in {@link LineWriter.Mode#ATOMIC} mode.
+     *
+     * @see LineWriter#commit()
+     */
+    public void commit() {
+        try {
+            if (!empty) {
+                endRecord();
+            }
+        } catch (RuntimeException e) {
+            writer.abort();
+            throw e;
+        }
+        writer.commit();
+    }
+
+    /**
+     * Closes the writer without publishing anything in {@link LineWriter.Mode#ATOMIC} mode.
+     *
+     * @see LineWriter#abort()
+     */
+    public void abort() {
+        writer.abort();
+    }
+
+    /**
+     * Writes the current record if not empty, then closes the file. In {@link LineWriter.Mode#ATOMIC} mode nothing is published unless
+     * {@link #commit() committed} before.
+     *
+     * @see LineWriter#close()
+     */
+    @Override
+    public void close() {
+        try {
+            if (!empty) {
+                endRecord();
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void startField() {
+        if (!empty) {
+            record.append(separator);
+        }
+        empty = false;
+    }
+
+    private boolean needsQuotes(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == separator || c == quote || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
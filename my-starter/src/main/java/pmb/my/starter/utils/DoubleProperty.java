@@ -0,0 +1,33 @@
+package pmb.my.starter.utils;
+
+/**
+ * A {@code double} property, parsed once per properties change.
+ *
+ * @see PropertyHandle
+ */
+public final class DoubleProperty
+    extends PropertyHandle<Double> {
+
+    /**
+     * Constructor.
+     *
+     * @param key id of the property
+     * @param defaultValue value used when the property is blank, missing or invalid
+     */
+    public DoubleProperty(String key, double defaultValue) {
+        super(key, defaultValue);
+    }
+
+    @Override
+    protected Double parse(String value) {
+        return Double.parseDouble(value);
+    }
+
+    /**
+     * @return the property value or the default one
+     */
+    public double get() {
+        return value();
+    }
+
+}
@@ -0,0 +1,385 @@
+package pmb.my.starter.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pmb.my.starter.exception.Exceptions;
+import pmb.my.starter.exception.MajorException;
+import pmb.my.starter.exception.MinorException;
+import pmb.my.starter.metrics.Counter;
+import pmb.my.starter.metrics.LatencyHistogram;
+import pmb.my.starter.metrics.Metrics;
+import pmb.my.starter.utils.BatchResult.Failure;
+import pmb.my.starter.utils.FileAttributesCache.FileTimes;
+
+/**
+ * Finds files with identical content, reading as little as possible. Files are compared in stages, each one only keeping the files that still
+ * have a twin:
+ * <ol>
+ * <li>files are grouped by size, without reading them,</li>
+ * <li>the first and last {@value #SAMPLE_SIZE} bytes of each file are hashed, files not bigger than twice that size being hashed completely,</li>
+ * <li>the remaining files are hashed completely, read by memory-mapping them.</li>
+ * </ol>
+ * Files are hashed in parallel by a {@link TaskRunner}, the concurrency should suit the storage: a few for a hard disk, more for SSD or network
+ * shares. Content is hashed with {@value #ALGORITHM}, files with the same size and hash are considered identical. Empty files are ignored.
+ * <p>
+ * Hashes can be saved in a cache file, keyed by path, size and last modification date, so that next runs only read new or modified files. Entries
+ * of files that no longer exist are dropped when saving.
+ * <p>
+ * A finder must be closed after use. A file that can't be read doesn't stop the search, it's reported as a failure.
+ *
+ * @see MyFileUtils#listFilesInFolder(File, List, boolean)
+ */
+public final class DuplicateFinder
+    implements AutoCloseable {
+
+    private static final Logger LOG = LogManager.getLogger(DuplicateFinder.class);
+
+    /**
+     * Number of bytes hashed at the beginning and at the end of each file before hashing it completely.
+     */
+    public static final int SAMPLE_SIZE = 4 * 1024;
+
+    /**
+     * Hash algorithm.
+     */
+    public static final String ALGORITHM = "SHA-256";
+
+    private static final int HASH_LENGTH = 32;
+    private static final long MAP_SIZE = 64L * 1024 * 1024;
+    private static final int MAGIC = 0x44555046;
+    private static final int VERSION = 1;
+
+    private static final LatencyHistogram SEARCH_TIME = Metrics.histogram(Metrics.DUPLICATE_SEARCH);
+    private static final Counter HASHED_BYTES = Metrics.counter(Metrics.DUPLICATE_HASHED_BYTES);
+
+    private final TaskRunner runner;
+    private final Path cacheFile;
+    private final Map<String, Hashes> cache = new ConcurrentHashMap<>();
+    /**
+     * Keys of the cache used since it was loaded.
+     */
+    private final Set<String> used = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor of a finder hashing as many files as there are processors at the same time, without cache.
+     */
+    public DuplicateFinder() {
+        this(Runtime.getRuntime().availableProcessors(), null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param concurrency maximum number of files hashed at the same time
+     * @param cacheFile where hashes are saved between runs, loaded if it exists, null for no cache
+     */
+    public DuplicateFinder(int concurrency, Path cacheFile) {
+        this.runner = new TaskRunner(concurrency, null, false);
+        this.cacheFile = cacheFile;
+        if (cacheFile != null && Files.exists(cacheFile)) {
+            load();
+        }
+    }
+
+    /**
+     * Finds duplicate files in a folder.
+     *
+     * @param folder directory containing files
+     * @param extensions list of extension of files to compare, all files if null
+     * @param recursive if the search is recursive or not
+     * @return duplicates found and files that couldn't be read
+     * @throws MajorException if interrupted
+     */
+    public Result find(File folder, List<String> extensions, boolean recursive) throws MajorException {
+        return find(MyFileUtils.listFilesInFolder(folder, extensions, recursive));
+    }
+
+    /**
+     * Finds duplicates among the given files, then saves the cache if any.
+     *
+     * @param files to compare
+     * @return duplicates found and files that couldn't be read
+     * @throws MajorException if interrupted
+     */
+    public Result find(Collection<File> files) throws MajorException {
+        long start = Metrics.start();
+        List<Failure<File>> failures = new ArrayList<>();
+        LongAdder bytesRead = new LongAdder();
+
+        Map<Long, List<Candidate>> bySize = new LinkedHashMap<>();
+        for (Entry<File, Optional<FileTimes>> entry : FileAttributesCache.readAll(files).entrySet()) {
+            File file = entry.getKey();
+            entry.getValue().ifPresentOrElse(times -> {
+                if (times.size() > 0L) {
+                    bySize.computeIfAbsent(times.size(), size -> new ArrayList<>())
+                            .add(new Candidate(file, file.getAbsolutePath(), times.size(), times.lastModified().toEpochMilli()));
+                }
+            }, () -> failures.add(new Failure<>(file, Exceptions.minor("Can't read attributes of: " + file))));
+        }
+        List<Candidate> sameSize = bySize.values().stream().filter(group -> group.size() > 1).flatMap(List::stream).toList();
+
+        List<List<Candidate>> sameSample = group(hashAll(sameSize, false, bytesRead, failures));
+        // Small files were hashed completely with their sample
+        List<List<Candidate>> duplicates = new ArrayList<>(sameSample.stream().filter(group -> !isSampled(group.get(0).size())).toList());
+        List<Candidate> sampled = sameSample.stream().filter(group -> isSampled(group.get(0).size())).flatMap(List::stream).toList();
+        duplicates.addAll(group(hashAll(sampled, true, bytesRead, failures)));
+
+        duplicates.sort(Comparator.comparingLong((List<Candidate> group) -> group.get(0).size()).reversed()
+                .thenComparing(group -> group.get(0).key()));
+        Result result = new Result(
+                duplicates.stream().map(group -> group.stream().map(Candidate::file).toList()).toList(),
+                List.copyOf(failures),
+                bytesRead.sum());
+        LOG.debug("{} files, {} of same size, {} of same sample, {} groups of duplicates, {} bytes read, {} failures", files.size(),
+                sameSize.size(), sampled.size(), result.duplicates().size(), result.bytesRead(), failures.size());
+        if (cacheFile != null) {
+            save();
+        }
+        SEARCH_TIME.recordSince(start);
+        HASHED_BYTES.add(result.bytesRead());
+        return result;
+    }
+
+    /**
+     * Stops the threads hashing files.
+     */
+    @Override
+    public void close() {
+        runner.close();
+    }
+
+    private Map<Candidate, ByteBuffer> hashAll(List<Candidate> candidates, boolean full, LongAdder bytesRead, List<Failure<File>> failures)
+            throws MajorException {
+        BatchResult<Candidate, ByteBuffer> hashes = new BatchResult<>();
+        List<RunnableThrowing> tasks = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates) {
+            tasks.add(() -> {
+                try {
+                    hashes.succeeded(candidate, ByteBuffer.wrap(hash(candidate, full, bytesRead)));
+                } catch (IOException | MinorException e) {
+                    hashes.failed(candidate, e);
+                }
+            });
+        }
+        runner.runAll(tasks);
+        hashes.getFailures().forEach(failure -> failures.add(new Failure<>(failure.item().file(), failure.error())));
+        return hashes.getResults();
+    }
+
+    /**
+     * Groups files by size and hash.
+     *
+     * @param hashes hash of each file
+     * @return groups of at least two files
+     */
+    private static List<List<Candidate>> group(Map<Candidate, ByteBuffer> hashes) {
+        Map<Key, List<Candidate>> groups = new LinkedHashMap<>();
+        hashes.forEach((candidate, hash) -> groups.computeIfAbsent(new Key(candidate.size(), hash), key -> new ArrayList<>()).add(candidate));
+        return groups.values().stream().filter(group -> group.size() > 1)
+                .map(group -> group.stream().sorted(Comparator.comparing(Candidate::key)).toList()).toList();
+    }
+
+    private byte[] hash(Candidate candidate, boolean full, LongAdder bytesRead) throws IOException {
+        if (cacheFile != null) {
+            used.add(candidate.key());
+            Hashes cached = cache.get(candidate.key());
+            if (cached != null && cached.size() == candidate.size() && cached.lastModified() == candidate.lastModified()) {
+                byte[] hash = full ? cached.full() : cached.sample();
+                if (hash != null) {
+                    return hash;
+                }
+            }
+        }
+        MessageDigest digest = newDigest();
+        try (FileChannel channel = FileChannel.open(candidate.file().toPath(), StandardOpenOption.READ)) {
+            if (channel.size() != candidate.size()) {
+                throw Exceptions.minor("File modified while searching duplicates: " + candidate.file());
+            }
+            if (full) {
+                for (long offset = 0L; offset < candidate.size(); offset += MAP_SIZE) {
+                    digest.update(channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(MAP_SIZE, candidate.size() - offset)));
+                }
+            } else if (isSampled(candidate.size())) {
+                ByteBuffer buffer = ByteBuffer.allocate(SAMPLE_SIZE);
+                digest.update(read(channel, buffer, 0L));
+                digest.update(read(channel, buffer.clear(), candidate.size() - SAMPLE_SIZE));
+            } else {
+                digest.update(read(channel, ByteBuffer.allocate((int) candidate.size()), 0L));
+            }
+        } catch (InternalError e) {
+            // Reading a mapped page beyond the end of a file truncated meanwhile raises SIGBUS, reported later as an InternalError
+            throw new IOException("File truncated while searching duplicates: " + candidate.file(), e);
+        }
+        if (Files.getLastModifiedTime(candidate.file().toPath()).toMillis() != candidate.lastModified()) {
+            throw Exceptions.minor("File modified while searching duplicates: " + candidate.file());
+        }
+        bytesRead.add(full || !isSampled(candidate.size()) ? candidate.size() : 2L * SAMPLE_SIZE);
+        byte[] hash = digest.digest();
+        if (cacheFile != null) {
+            // The sample of a small file is its whole content
+            byte[] sample = full ? null : hash;
+            byte[] complete = full || !isSampled(candidate.size()) ? hash : null;
+            cache.merge(candidate.key(), new Hashes(candidate.size(), candidate.lastModified(), sample, complete),
+                    (old, hashes) -> old.size() != hashes.size() || old.lastModified() != hashes.lastModified() ? hashes
+                            : new Hashes(hashes.size(), hashes.lastModified(), Optional.ofNullable(hashes.sample()).orElse(old.sample()),
+                                    Optional.ofNullable(hashes.full()).orElse(old.full())));
+        }
+        return hash;
+    }
+
+    /**
+     * Fills the buffer from the given position of the channel.
+     *
+     * @return the buffer, flipped
+     */
+    private static ByteBuffer read(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("File truncated at " + (position + buffer.position()));
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * @return true if files of this size are hashed partially before being hashed completely
+     */
+    private static boolean isSampled(long size) {
+        return size > 2L * SAMPLE_SIZE;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " is not supported", e);
+        }
+    }
+
+    private void load() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile), 64 * 1024))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !ALGORITHM.equals(in.readUTF())) {
+                LOG.warn("Hash cache {} has an unknown format, ignoring it", cacheFile);
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                long size = in.readLong();
+                long lastModified = in.readLong();
+                cache.put(key, new Hashes(size, lastModified, readHash(in), readHash(in)));
+            }
+        } catch (IOException e) {
+            LOG.warn("Can't read hash cache {}, ignoring it", cacheFile, e);
+            cache.clear();
+        }
+    }
+
+    /**
+     * Saves the cache in its file, atomically, without the entries of files that no longer exist.
+     */
+    private void save() {
+        cache.keySet().removeIf(key -> !used.contains(key) && !Files.exists(Path.of(key)));
+        Path tmp = cacheFile.toAbsolutePath().resolveSibling(cacheFile.getFileName() + "." + Uuids.fastRandomHex() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), 64 * 1024))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(ALGORITHM);
+                List<Entry<String, Hashes>> entries = List.copyOf(cache.entrySet());
+                out.writeInt(entries.size());
+                for (Entry<String, Hashes> entry : entries) {
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(entry.getValue().size());
+                    out.writeLong(entry.getValue().lastModified());
+                    writeHash(out, entry.getValue().sample());
+                    writeHash(out, entry.getValue().full());
+                }
+            }
+            MyFileUtils.moveAtomically(tmp, cacheFile);
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw new MinorException("Error when saving hash cache: " + cacheFile, e);
+        }
+    }
+
+    private static byte[] readHash(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        byte[] hash = new byte[HASH_LENGTH];
+        in.readFully(hash);
+        return hash;
+    }
+
+    private static void writeHash(DataOutputStream out, byte[] hash) throws IOException {
+        out.writeBoolean(hash != null);
+        if (hash != null) {
+            out.write(hash);
+        }
+    }
+
+    /**
+     * Outcome of a search.
+     *
+     * @param duplicates groups of files with identical content, biggest files first, each group sorted by path
+     * @param failures files that couldn't be compared, with their error
+     * @param bytesRead number of bytes read to hash files, cached hashes excluded
+     */
+    public record Result(List<List<File>> duplicates, List<Failure<File>> failures, long bytesRead) {
+    }
+
+    /**
+     * File to compare.
+     *
+     * @param key absolute path, key of the cache
+     * @param lastModified in milliseconds
+     */
+    private record Candidate(File file, String key, long size, long lastModified) {
+    }
+
+    private record Key(long size, ByteBuffer hash) {
+    }
+
+    /**
+     * Cached hashes of a file.
+     *
+     * @param sample hash of the beginning and the end of the file, null if unknown
+     * @param full hash of the whole content, null if unknown
+     */
+    private record Hashes(long size, long lastModified, byte[] sample, byte[] full) {
+    }
+
+}
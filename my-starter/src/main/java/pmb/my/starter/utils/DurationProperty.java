@@ -0,0 +1,66 @@
+package pmb.my.starter.utils;
+
+import java.time.Duration;
+import java.util.Locale;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * A {@link Duration} property, parsed once per properties change. Accepts ISO-8601 durations ({@code PT30S}), or a number followed by one of the
+ * units {@code ms}, {@code s}, {@code m}, {@code h}, {@code d}, milliseconds if none.
+ *
+ * @see PropertyHandle
+ */
+public final class DurationProperty
+    extends PropertyHandle<Duration> {
+
+    /**
+     * Constructor.
+     *
+     * @param key id of the property
+     * @param defaultValue value used when the property is blank, missing or invalid
+     */
+    public DurationProperty(String key, Duration defaultValue) {
+        super(key, defaultValue);
+    }
+
+    @Override
+    protected Duration parse(String value) {
+        String lower = value.toLowerCase(Locale.ROOT);
+        if (lower.startsWith("p") || lower.startsWith("-p")) {
+            return Duration.parse(value);
+        }
+        String unit = StringUtils.stripStart(lower, "0123456789").trim();
+        long amount = Long.parseLong(StringUtils.removeEnd(lower, unit).trim());
+        switch (unit) {
+            case "":
+            case "ms":
+                return Duration.ofMillis(amount);
+            case "s":
+                return Duration.ofSeconds(amount);
+            case "m":
+                return Duration.ofMinutes(amount);
+            case "h":
+                return Duration.ofHours(amount);
+            case "d":
+                return Duration.ofDays(amount);
+            default:
+                throw new IllegalArgumentException("Unknown duration unit: " + unit);
+        }
+    }
+
+    /**
+     * @return the property value or the default one
+     */
+    public Duration get() {
+        return value();
+    }
+
+    /**
+     * @return the property value or the default one, in milliseconds
+     */
+    public long toMillis() {
+        return value().toMillis();
+    }
+
+}
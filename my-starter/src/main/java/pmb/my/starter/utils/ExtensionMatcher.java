@@ -0,0 +1,77 @@
+package pmb.my.starter.utils;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Matches file names ending with one of the given extensions, ignoring case. Extensions are lowered once and looked up in a set by suffix length,
+ * instead of comparing the name with every extension.
+ */
+final class ExtensionMatcher
+    implements Predicate<String> {
+
+    private static final ExtensionMatcher ALL = new ExtensionMatcher(Set.of(), new int[0]);
+
+    private final Set<String> suffixes;
+    private final int[] lengths;
+    private final int maxLength;
+
+    private ExtensionMatcher(Set<String> suffixes, int[] lengths) {
+        this.suffixes = suffixes;
+        this.lengths = lengths;
+        this.maxLength = lengths.length == 0 ? 0 : lengths[lengths.length - 1];
+    }
+
+    /**
+     * Builds a matcher.
+     *
+     * @param extensions suffixes to match, all names match if null or empty
+     * @return a matcher
+     */
+    static ExtensionMatcher of(Collection<String> extensions) {
+        if (extensions == null || extensions.isEmpty()) {
+            return ALL;
+        }
+        Set<String> suffixes = extensions.stream().filter(Objects::nonNull).map(ExtensionMatcher::lower).collect(Collectors.toUnmodifiableSet());
+        if (suffixes.contains("")) {
+            return ALL;
+        }
+        return new ExtensionMatcher(suffixes, suffixes.stream().mapToInt(String::length).distinct().sorted().toArray());
+    }
+
+    /**
+     * @return true if every name matches
+     */
+    boolean matchesAll() {
+        return suffixes.isEmpty();
+    }
+
+    @Override
+    public boolean test(String name) {
+        if (suffixes.isEmpty()) {
+            return true;
+        }
+        String tail = lower(name.substring(Math.max(0, name.length() - maxLength)));
+        for (int length : lengths) {
+            if (length <= tail.length() && suffixes.contains(tail.substring(tail.length() - length))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lowers each character like {@link String#regionMatches(boolean, int, String, int, int)} does, keeping the length unchanged.
+     */
+    private static String lower(String text) {
+        char[] chars = text.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+}
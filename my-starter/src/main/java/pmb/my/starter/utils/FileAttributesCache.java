@@ -0,0 +1,165 @@
+package pmb.my.starter.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Reads files attributes in batch, in parallel, and keeps them in a cache.
+ * <p>
+ * A cached value is returned as is during the time to live. Once expired, only the last modification date of the file is read: if unchanged the
+ * value is kept for another time to live, otherwise all attributes are read again. Files whose attributes can't be read are unknown, represented by
+ * an empty {@link Optional}, and not cached.
+ *
+ * @see MyFileUtils#getCreationDate(File)
+ */
+public final class FileAttributesCache {
+
+    private static final Logger LOG = LogManager.getLogger(FileAttributesCache.class);
+
+    private final long ttl;
+    private final Map<Path, Cached> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param ttl time during which cached attributes are returned without any access to the file system
+     */
+    public FileAttributesCache(Duration ttl) {
+        this.ttl = ttl.toNanos();
+    }
+
+    /**
+     * Reads, in parallel and without cache, the attributes of the given files.
+     *
+     * @param files whose attributes are wanted
+     * @return attributes by file, in the given order, empty if unknown
+     */
+    public static Map<File, Optional<FileTimes>> readAll(Collection<File> files) {
+        return files.parallelStream().distinct()
+                .collect(Collectors.toMap(Function.identity(), file -> read(file.toPath()), (a, b) -> a, LinkedHashMap::new));
+    }
+
+    /**
+     * Reads the attributes of a file, without cache.
+     *
+     * @param file whose attributes are wanted
+     * @return its attributes, empty if unknown
+     */
+    public static Optional<FileTimes> read(Path file) {
+        try {
+            return Optional.of(FileTimes.of(Files.readAttributes(file, BasicFileAttributes.class)));
+        } catch (IOException e) {
+            LOG.debug("Can't read attributes of {}", file, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Gets, in parallel, the attributes of the given files.
+     *
+     * @param files whose attributes are wanted
+     * @return attributes by file, in the given order, empty if unknown
+     */
+    public Map<File, Optional<FileTimes>> getAll(Collection<File> files) {
+        return files.parallelStream().distinct().collect(Collectors.toMap(Function.identity(), this::get, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    /**
+     * Gets the attributes of a file.
+     *
+     * @param file whose attributes are wanted
+     * @return its attributes, empty if unknown
+     */
+    public Optional<FileTimes> get(File file) {
+        Path path = file.toPath();
+        long now = System.nanoTime();
+        Cached cached = cache.get(path);
+        if (cached != null) {
+            if (now - cached.readAt < ttl) {
+                return Optional.of(cached.times);
+            }
+            if (file.lastModified() == cached.times.lastModified().toEpochMilli()) {
+                cache.put(path, new Cached(cached.times, now));
+                return Optional.of(cached.times);
+            }
+        }
+        Optional<FileTimes> times = read(path);
+        times.ifPresentOrElse(value -> cache.put(path, new Cached(value, now)), () -> cache.remove(path));
+        return times;
+    }
+
+    /**
+     * Builds a comparator sorting the given files by creation date, unknown ones last. Attributes are got once here, in parallel, so that the order
+     * stays consistent during a sort even if cached values expire meanwhile.
+     *
+     * @param files to sort, other files are compared as unknown
+     * @return a comparator using a snapshot of the attributes
+     */
+    public Comparator<File> byCreationDate(Collection<File> files) {
+        Map<File, Optional<FileTimes>> snapshot = getAll(files);
+        return Comparator.comparing((File file) -> snapshot.getOrDefault(file, Optional.empty()).map(FileTimes::creation), (a, b) -> {
+            if (a.isEmpty() || b.isEmpty()) {
+                return Boolean.compare(a.isEmpty(), b.isEmpty());
+            }
+            return a.get().compareTo(b.get());
+        });
+    }
+
+    /**
+     * Removes a file from the cache.
+     *
+     * @param file to forget
+     */
+    public void invalidate(File file) {
+        cache.remove(file.toPath());
+    }
+
+    /**
+     * Empties the cache.
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Attributes of a file.
+     *
+     * @param size in bytes
+     * @param creation creation date
+     * @param lastModified last modification date
+     */
+    public record FileTimes(long size, Instant creation, Instant lastModified) {
+
+        private static FileTimes of(BasicFileAttributes attributes) {
+            return new FileTimes(attributes.size(), attributes.creationTime().toInstant(), attributes.lastModifiedTime().toInstant());
+        }
+    }
+
+    private static final class Cached {
+
+        private final FileTimes times;
+        private final long readAt;
+
+        private Cached(FileTimes times, long readAt) {
+            this.times = times;
+            this.readAt = readAt;
+        }
+    }
+
+}
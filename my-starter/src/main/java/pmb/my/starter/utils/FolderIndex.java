@@ -0,0 +1,419 @@
+package pmb.my.starter.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pmb.my.starter.exception.MinorException;
+
+/**
+ * Persistent index of the files of a folder tree: size, last modification and creation dates of each file, saved in a compact binary file.
+ * <p>
+ * {@link #refresh()} returns the files added, modified or removed since the previous refresh. When {@link #watch() watching}, only folders notified
+ * by the {@link WatchService} are listed again. Otherwise only folders whose modification date changed are listed again: files added or removed are
+ * found, but a file modified in place in an unchanged folder is not.
+ * <p>
+ * Methods are synchronized, an index can be shared between threads.
+ *
+ * @see MyFileUtils#listFilesInFolder(File, List, boolean)
+ */
+public final class FolderIndex
+    implements AutoCloseable {
+
+    private static final Logger LOG = LogManager.getLogger(FolderIndex.class);
+
+    private static final int MAGIC = 0x46494458;
+    private static final int VERSION = 1;
+
+    private final Path root;
+    private final Path indexFile;
+    private final Map<Path, Folder> folders = new HashMap<>();
+    private WatchService watcher;
+    private final Map<WatchKey, Path> watched = new HashMap<>();
+    /**
+     * Folders that couldn't be listed, listed again on next refresh.
+     */
+    private final Set<Path> failed = new HashSet<>();
+
+    private FolderIndex(Path root, Path indexFile) {
+        this.root = root.toAbsolutePath().normalize();
+        this.indexFile = indexFile;
+    }
+
+    /**
+     * Opens the index of the given folder, loaded from the index file if it exists, built by walking the whole tree otherwise.
+     *
+     * @param root folder to index
+     * @param indexFile where the index is saved
+     * @return an index, to refresh to find changes since its last save
+     */
+    public static FolderIndex open(Path root, Path indexFile) {
+        FolderIndex index = new FolderIndex(root, indexFile);
+        if (!Files.exists(indexFile) || !index.load()) {
+            index.index(index.root, new Changes(new ArrayList<>(), new ArrayList<>(), new ArrayList<>()));
+        }
+        return index;
+    }
+
+    /**
+     * Finds changes in the folder tree and updates the index accordingly.
+     *
+     * @return files added, modified and removed since the last refresh
+     */
+    public synchronized Changes refresh() {
+        Changes changes = new Changes(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        Set<Path> retried = new HashSet<>(failed);
+        failed.clear();
+        if (watcher == null) {
+            for (Path folder : new ArrayList<>(folders.keySet())) {
+                Folder known = folders.get(folder);
+                if (known != null && (retried.contains(folder) || lastModified(folder) != known.lastModified)) {
+                    rescan(folder, changes);
+                }
+            }
+            return changes;
+        }
+        Set<Path> notified = new HashSet<>(retried);
+        boolean overflow = false;
+        WatchKey key;
+        while ((key = watcher.poll()) != null) {
+            Path folder = watched.get(key);
+            for (WatchEvent<?> event : key.pollEvents()) {
+                overflow |= event.kind() == StandardWatchEventKinds.OVERFLOW;
+            }
+            if (folder != null) {
+                notified.add(folder);
+            }
+            if (!key.reset()) {
+                watched.remove(key);
+            }
+        }
+        if (overflow) {
+            LOG.debug("Watch events lost, listing all folders of {}", root);
+            notified.addAll(folders.keySet());
+        }
+        notified.stream().filter(folders::containsKey).forEach(folder -> rescan(folder, changes));
+        return changes;
+    }
+
+    /**
+     * Starts watching indexed folders, subsequent refreshes only list again the folders in which something happened.
+     */
+    public synchronized void watch() {
+        if (watcher != null) {
+            return;
+        }
+        try {
+            watcher = root.getFileSystem().newWatchService();
+        } catch (IOException e) {
+            throw new MinorException("Error when watching folder: " + root, e);
+        }
+        folders.keySet().forEach(this::register);
+    }
+
+    /**
+     * Saves the index in its file, atomically.
+     */
+    public synchronized void save() {
+        Path tmp = indexFile.toAbsolutePath().resolveSibling(indexFile.getFileName() + "." + Uuids.fastRandomHex() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), 64 * 1024))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(root.toString());
+                out.writeInt(folders.size());
+                for (Map.Entry<Path, Folder> folder : folders.entrySet()) {
+                    out.writeUTF(root.relativize(folder.getKey()).toString());
+                    out.writeLong(folder.getValue().lastModified);
+                    out.writeInt(folder.getValue().files.size());
+                    for (Map.Entry<String, FileEntry> file : folder.getValue().files.entrySet()) {
+                        out.writeUTF(file.getKey());
+                        out.writeLong(file.getValue().size());
+                        out.writeLong(file.getValue().lastModified());
+                        out.writeLong(file.getValue().creation());
+                    }
+                }
+            }
+            MyFileUtils.moveAtomically(tmp, indexFile);
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw new MinorException("Error when saving index: " + indexFile, e);
+        }
+    }
+
+    /**
+     * Lists indexed files, from all the tree.
+     *
+     * @param extensions suffixes of the files to find, ignoring case, all files if null or empty
+     * @return a list of files
+     */
+    public synchronized List<File> listFiles(Collection<String> extensions) {
+        ExtensionMatcher matcher = ExtensionMatcher.of(extensions);
+        List<File> result = new ArrayList<>();
+        folders.forEach((path, folder) -> folder.files.keySet().stream().filter(matcher).map(name -> path.resolve(name).toFile()).forEach(result::add));
+        return result;
+    }
+
+    /**
+     * Gets indexed attributes of a file.
+     *
+     * @param file an indexed file
+     * @return its attributes, empty if not indexed
+     */
+    public synchronized Optional<FileEntry> get(Path file) {
+        Path absolute = file.toAbsolutePath().normalize();
+        return Optional.ofNullable(absolute.getParent()).map(folders::get).map(folder -> folder.files.get(absolute.getFileName().toString()));
+    }
+
+    /**
+     * Recovers the creation date of the given file from the index.
+     *
+     * @param file an indexed file
+     * @return the creation date, empty if not indexed
+     * @see MyFileUtils#getCreationLocalDate(File)
+     */
+    public Optional<LocalDateTime> getCreationLocalDate(File file) {
+        return get(file.toPath()).map(entry -> LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.creation()), ZoneId.systemDefault()));
+    }
+
+    /**
+     * Recovers the creation date of the given file from the index.
+     *
+     * @param file an indexed file
+     * @return the creation date, empty if not indexed
+     * @see MyFileUtils#getCreationDate(File)
+     */
+    public Optional<Date> getCreationDate(File file) {
+        return get(file.toPath()).map(entry -> new Date(entry.creation()));
+    }
+
+    /**
+     * Stops watching, if started. The index stays usable.
+     */
+    @Override
+    public synchronized void close() {
+        if (watcher != null) {
+            try {
+                watcher.close();
+            } catch (IOException e) {
+                LOG.warn("Error when closing watch service of {}", root, e);
+            }
+            watcher = null;
+            watched.clear();
+        }
+    }
+
+    private boolean load() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile), 64 * 1024))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !root.toString().equals(in.readUTF())) {
+                LOG.warn("Index {} doesn't match {}, rebuilding it", indexFile, root);
+                return false;
+            }
+            int folderCount = in.readInt();
+            for (int i = 0; i < folderCount; i++) {
+                Path path = root.resolve(in.readUTF());
+                Folder folder = new Folder(in.readLong());
+                int fileCount = in.readInt();
+                for (int j = 0; j < fileCount; j++) {
+                    folder.files.put(in.readUTF(), new FileEntry(in.readLong(), in.readLong(), in.readLong()));
+                }
+                folders.put(path, folder);
+            }
+        } catch (IOException e) {
+            LOG.warn("Can't read index {}, rebuilding it", indexFile, e);
+            folders.clear();
+            return false;
+        }
+        folders.keySet().stream().filter(path -> !path.equals(root))
+                .forEach(path -> Optional.ofNullable(folders.get(path.getParent())).ifPresent(parent -> parent.subFolders.add(path.getFileName().toString())));
+        return true;
+    }
+
+    /**
+     * Indexes a new folder and its whole tree, every file found being added.
+     */
+    private void index(Path path, Changes changes) {
+        Folder folder = new Folder(lastModified(path));
+        folders.put(path, folder);
+        register(path);
+        List<Path> subFolders = new ArrayList<>();
+        try {
+            FolderScanner.list(path, (entry, attributes) -> {
+                String name = entry.getFileName().toString();
+                if (attributes.isDirectory()) {
+                    folder.subFolders.add(name);
+                    subFolders.add(entry);
+                } else {
+                    folder.files.put(name, FileEntry.of(attributes));
+                    changes.added().add(entry);
+                }
+            }, true);
+        } catch (IOException e) {
+            LOG.warn("Can't list folder {}, listing it again on next refresh", path, e);
+            failed.add(path);
+            // Also listed again after being saved and loaded
+            folder.lastModified = -1L;
+        }
+        subFolders.forEach(subFolder -> index(subFolder, changes));
+    }
+
+    /**
+     * Lists again an indexed folder and compares its content with the index.
+     */
+    private void rescan(Path path, Changes changes) {
+        Folder known = folders.get(path);
+        if (!Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+            remove(path, changes);
+            return;
+        }
+        long lastModified = lastModified(path);
+        Map<String, FileEntry> files = new HashMap<>();
+        Set<String> subFolders = new HashSet<>();
+        try {
+            FolderScanner.list(path, (entry, attributes) -> {
+                if (attributes.isDirectory()) {
+                    subFolders.add(entry.getFileName().toString());
+                } else {
+                    files.put(entry.getFileName().toString(), FileEntry.of(attributes));
+                }
+            }, true);
+        } catch (IOException e) {
+            // Keeps the previous content, otherwise all its files would be reported removed
+            LOG.warn("Can't list folder {}, listing it again on next refresh", path, e);
+            failed.add(path);
+            return;
+        }
+        known.lastModified = lastModified;
+        files.forEach((name, current) -> {
+            FileEntry previous = known.files.remove(name);
+            if (previous == null) {
+                changes.added().add(path.resolve(name));
+            } else if (previous.size() != current.size() || previous.lastModified() != current.lastModified()) {
+                changes.modified().add(path.resolve(name));
+            }
+        });
+        known.files.keySet().forEach(name -> changes.removed().add(path.resolve(name)));
+        known.files.clear();
+        known.files.putAll(files);
+        List<Path> newFolders = subFolders.stream().filter(name -> !known.subFolders.remove(name)).map(path::resolve).toList();
+        known.subFolders.forEach(name -> remove(path.resolve(name), changes));
+        known.subFolders.clear();
+        known.subFolders.addAll(subFolders);
+        newFolders.forEach(folder -> index(folder, changes));
+    }
+
+    /**
+     * Removes a folder and its tree from the index, every file being removed.
+     */
+    private void remove(Path path, Changes changes) {
+        Folder folder = folders.remove(path);
+        if (folder == null) {
+            return;
+        }
+        folder.files.keySet().forEach(name -> changes.removed().add(path.resolve(name)));
+        folder.subFolders.forEach(name -> remove(path.resolve(name), changes));
+        watched.values().remove(path);
+    }
+
+    private void register(Path folder) {
+        if (watcher == null) {
+            return;
+        }
+        try {
+            watched.put(folder.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE,
+                    StandardWatchEventKinds.ENTRY_MODIFY), folder);
+        } catch (NoSuchFileException e) {
+            LOG.debug("Folder {} removed before being watched", folder, e);
+        } catch (IOException | ClosedWatchServiceException e) {
+            LOG.warn("Can't watch folder {}", folder, e);
+        }
+    }
+
+    private static long lastModified(Path folder) {
+        try {
+            return Files.getLastModifiedTime(folder, LinkOption.NOFOLLOW_LINKS).toMillis();
+        } catch (IOException e) {
+            return -1L;
+        }
+    }
+
+    /**
+     * An indexed folder.
+     */
+    private static final class Folder {
+
+        private long lastModified;
+        private final Map<String, FileEntry> files = new HashMap<>();
+        private final Set<String> subFolders = new HashSet<>();
+
+        private Folder(long lastModified) {
+            this.lastModified = lastModified;
+        }
+    }
+
+    /**
+     * Indexed attributes of a file, dates in epoch milliseconds.
+     *
+     * @param size in bytes
+     * @param lastModified last modification date
+     * @param creation creation date
+     */
+    public record FileEntry(long size, long lastModified, long creation) {
+
+        private static FileEntry of(BasicFileAttributes attributes) {
+            return new FileEntry(attributes.size(), attributes.lastModifiedTime().toMillis(), attributes.creationTime().toMillis());
+        }
+    }
+
+    /**
+     * Files changed between two refreshes.
+     *
+     * @param added new files
+     * @param modified files whose size or last modification date changed
+     * @param removed deleted files
+     */
+    public record Changes(List<Path> added, List<Path> modified, List<Path> removed) {
+
+        /**
+         * @return true if nothing changed
+         */
+        public boolean isEmpty() {
+            return added.isEmpty() && modified.isEmpty() && removed.isEmpty();
+        }
+    }
+
+}
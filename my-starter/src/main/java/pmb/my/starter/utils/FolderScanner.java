@@ -0,0 +1,276 @@
+package pmb.my.starter.utils;
+
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pmb.my.starter.exception.MinorException;
+
+/**
+ * Lists files of a folder tree with {@link DirectoryStream}, reading the {@link BasicFileAttributes} of each entry only once.
+ * <p>
+ * Results are lazy streams: files are given as soon as they are found, before the end of the walk. Symbolic links are not followed and unreadable
+ * folders are logged and skipped. Returned streams must be closed, which stops the walk if it isn't over.
+ *
+ * @see MyFileUtils#listFilesInFolder(java.io.File, List, boolean)
+ */
+public final class FolderScanner {
+
+    private static final Logger LOG = LogManager.getLogger(FolderScanner.class);
+
+    private static final int QUEUE_CAPACITY = 10_000;
+
+    /**
+     * Marks the end of a parallel walk in the queue.
+     */
+    private static final Path END = Path.of("");
+
+    private FolderScanner() {
+        throw new AssertionError("Must not be used");
+    }
+
+    /**
+     * Lazily scans the given folder in the calling thread.
+     * <p>
+     * If recursive, only files are returned; otherwise every entry of the folder matching the extensions is returned, folders included. If the
+     * given path isn't a folder, it's the only result.
+     *
+     * @param folder directory to scan
+     * @param extensions suffixes of the files to find, ignoring case, all files if null or empty
+     * @param recursive if sub folders are scanned
+     * @return a stream of paths, to close after use
+     */
+    public static Stream<Path> scan(Path folder, Collection<String> extensions, boolean recursive) {
+        if (!Files.isDirectory(folder)) {
+            return Stream.of(folder);
+        }
+        ExtensionMatcher matcher = ExtensionMatcher.of(extensions);
+        Iterator<Path> iterator = new Iterator<>() {
+
+            private final Deque<Path> folders = new ArrayDeque<>(List.of(folder));
+            private final Deque<Path> found = new ArrayDeque<>();
+
+            @Override
+            public boolean hasNext() {
+                while (found.isEmpty() && !folders.isEmpty()) {
+                    Path current = folders.pop();
+                    List<Path> children = new ArrayList<>();
+                    visit(current, matcher, recursive, found::add, children::add);
+                    // Keeps depth-first order
+                    for (int i = children.size() - 1; i >= 0; i--) {
+                        folders.push(children.get(i));
+                    }
+                }
+                return !found.isEmpty();
+            }
+
+            @Override
+            public Path next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return found.poll();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Lazily scans the given folder, each sub folder being listed by its own task in the given pool. Order of the results is not defined.
+     *
+     * @param folder directory to scan
+     * @param extensions suffixes of the files to find, ignoring case, all files if null or empty
+     * @param recursive if sub folders are scanned
+     * @param pool pool running the walk
+     * @return a stream of paths, to close after use
+     * @see #scan(Path, Collection, boolean)
+     */
+    public static Stream<Path> scan(Path folder, Collection<String> extensions, boolean recursive, ForkJoinPool pool) {
+        if (!Files.isDirectory(folder)) {
+            return Stream.of(folder);
+        }
+        ExtensionMatcher matcher = ExtensionMatcher.of(extensions);
+        BlockingQueue<Path> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        pool.execute(() -> {
+            try {
+                new FolderTask(folder, matcher, recursive, queue, cancelled).invoke();
+            } finally {
+                put(queue, END, cancelled);
+            }
+        });
+        Iterator<Path> iterator = new Iterator<>() {
+
+            private Path next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    try {
+                        next = queue.take();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new MinorException("Interrupted when scanning: " + folder, e);
+                    }
+                }
+                return next != END;
+            }
+
+            @Override
+            public Path next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Path result = next;
+                next = null;
+                return result;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL), false).onClose(() -> {
+            cancelled.set(true);
+            queue.clear();
+        });
+    }
+
+    /**
+     * Lists a folder, giving matching entries to the first consumer and sub folders to explore to the second one.
+     */
+    private static void visit(Path folder, ExtensionMatcher matcher, boolean recursive, Consumer<Path> found, Consumer<Path> subFolders) {
+        visit(folder, (path, attributes) -> {
+            if (recursive && attributes.isDirectory()) {
+                subFolders.accept(path);
+            } else if (matcher.test(path.getFileName().toString())) {
+                found.accept(path);
+            }
+        });
+    }
+
+    /**
+     * Gives each entry of the folder with its attributes to the consumer, read without following links. Entries whose attributes can't be read are
+     * skipped, a folder that can't be listed is logged and considered empty.
+     *
+     * @param folder directory to list
+     * @param consumer called for each entry
+     */
+    static void visit(Path folder, BiConsumer<Path, BasicFileAttributes> consumer) {
+        try {
+            list(folder, consumer, false);
+        } catch (IOException e) {
+            LOG.warn("Can't list folder {}", folder, e);
+        }
+    }
+
+    /**
+     * Gives each entry of the folder with its attributes to the consumer, read without following links.
+     *
+     * @param folder directory to list
+     * @param consumer called for each entry
+     * @param strict if true, an entry whose attributes can't be read fails the listing, otherwise it's skipped
+     * @throws IOException if the folder can't be listed, the consumer may then have been called for some entries
+     */
+    static void list(Path folder, BiConsumer<Path, BasicFileAttributes> consumer, boolean strict) throws IOException {
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(folder)) {
+            for (Path entry : entries) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                } catch (IOException e) {
+                    if (strict) {
+                        throw e;
+                    }
+                    LOG.warn("Can't read attributes of {}", entry, e);
+                    continue;
+                }
+                consumer.accept(entry, attributes);
+            }
+        } catch (DirectoryIteratorException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void put(BlockingQueue<Path> queue, Path path, AtomicBoolean cancelled) {
+        try {
+            ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+
+                private boolean done;
+
+                @Override
+                public boolean block() throws InterruptedException {
+                    while (!done && !cancelled.get()) {
+                        done = queue.offer(path, 100, TimeUnit.MILLISECONDS);
+                    }
+                    return true;
+                }
+
+                @Override
+                public boolean isReleasable() {
+                    return done || cancelled.get() || (done = queue.offer(path));
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelled.set(true);
+        }
+    }
+
+    /**
+     * Lists a folder and forks a task per sub folder.
+     */
+    private static final class FolderTask
+        extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path folder;
+        private final transient ExtensionMatcher matcher;
+        private final boolean recursive;
+        private final transient BlockingQueue<Path> queue;
+        private final AtomicBoolean cancelled;
+
+        private FolderTask(Path folder, ExtensionMatcher matcher, boolean recursive, BlockingQueue<Path> queue, AtomicBoolean cancelled) {
+            this.folder = folder;
+            this.matcher = matcher;
+            this.recursive = recursive;
+            this.queue = queue;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        protected void compute() {
+            if (cancelled.get()) {
+                return;
+            }
+            List<FolderTask> subTasks = new ArrayList<>();
+            visit(folder, matcher, recursive, path -> put(queue, path, cancelled),
+                    path -> subTasks.add(new FolderTask(path, matcher, recursive, queue, cancelled)));
+            invokeAll(subTasks);
+        }
+    }
+
+}
@@ -0,0 +1,33 @@
+package pmb.my.starter.utils;
+
+/**
+ * An {@code int} property, parsed once per properties change.
+ *
+ * @see PropertyHandle
+ */
+public final class IntProperty
+    extends PropertyHandle<Integer> {
+
+    /**
+     * Constructor.
+     *
+     * @param key id of the property
+     * @param defaultValue value used when the property is blank, missing or invalid
+     */
+    public IntProperty(String key, int defaultValue) {
+        super(key, defaultValue);
+    }
+
+    @Override
+    protected Integer parse(String value) {
+        return Integer.parseInt(value);
+    }
+
+    /**
+     * @return the property value or the default one
+     */
+    public int get() {
+        return value();
+    }
+
+}
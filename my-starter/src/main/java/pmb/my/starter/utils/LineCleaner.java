@@ -0,0 +1,191 @@
+package pmb.my.starter.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+/**
+ * Replaces many strings at once, ignoring case, in a single pass over each line.
+ * <p>
+ * Rules are compiled once in a case folded trie. At each position of a line, the longest matching key is replaced and the scan goes on after it;
+ * replacements themselves are never scanned again. Unlike successive {@link VariousUtils#cleanLine(String, java.util.Set) cleanLine} calls, a rule
+ * therefore can't match text produced by another rule. When two keys are equal ignoring case, the first one wins. Compiled cleaners are immutable and
+ * thread-safe.
+ */
+public final class LineCleaner {
+
+    private static final int ASCII = 128;
+
+    /**
+     * Transitions of each node: folded characters, sorted, and the matching children.
+     */
+    private final char[][] keys;
+    private final int[][] children;
+    /**
+     * Replacement of the key ending at each node, null if none.
+     */
+    private final String[] replacements;
+    /**
+     * Children of the root for ASCII characters, 0 if none, to skip quickly positions where no key starts.
+     */
+    private final int[] rootAscii = new int[ASCII];
+
+    private LineCleaner(List<Node> nodes) {
+        keys = new char[nodes.size()][];
+        children = new int[nodes.size()][];
+        replacements = new String[nodes.size()];
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            keys[i] = new char[node.next.size()];
+            children[i] = new int[node.next.size()];
+            int j = 0;
+            for (Entry<Character, Integer> next : node.next.entrySet()) {
+                keys[i][j] = next.getKey();
+                children[i][j++] = next.getValue();
+            }
+            replacements[i] = node.replacement;
+        }
+        for (int c = 0; c < ASCII; c++) {
+            rootAscii[c] = child(0, fold((char) c));
+        }
+    }
+
+    /**
+     * Compiles the given rules.
+     *
+     * @param rules key: string to replace, ignoring case, value: string to replace with. Empty keys and null values are ignored
+     * @return a cleaner applying these rules
+     */
+    public static LineCleaner compile(Map<String, String> rules) {
+        return compile(rules.entrySet());
+    }
+
+    /**
+     * Compiles the given rules.
+     *
+     * @param rules key: string to replace, ignoring case, value: string to replace with. Empty keys and null values are ignored
+     * @return a cleaner applying these rules
+     */
+    public static LineCleaner compile(Collection<? extends Entry<String, String>> rules) {
+        List<Node> nodes = new ArrayList<>();
+        nodes.add(new Node());
+        for (Entry<String, String> rule : rules) {
+            String key = rule.getKey();
+            if (key == null || key.isEmpty() || rule.getValue() == null) {
+                continue;
+            }
+            int node = 0;
+            for (int i = 0; i < key.length(); i++) {
+                Integer next = nodes.get(node).next.get(fold(key.charAt(i)));
+                if (next == null) {
+                    next = nodes.size();
+                    nodes.get(node).next.put(fold(key.charAt(i)), next);
+                    nodes.add(new Node());
+                }
+                node = next;
+            }
+            if (nodes.get(node).replacement == null) {
+                nodes.get(node).replacement = rule.getValue();
+            }
+        }
+        return new LineCleaner(nodes);
+    }
+
+    /**
+     * Cleans a line.
+     *
+     * @param line to clean
+     * @return the line cleaned, the given instance if nothing was replaced
+     */
+    public String clean(String line) {
+        if (line == null) {
+            return null;
+        }
+        int from = nextMatch(line, 0);
+        if (from < 0) {
+            return line;
+        }
+        StringBuilder out = new StringBuilder(line.length() + 16);
+        out.append(line, 0, from);
+        clean(line, from, out);
+        return out.toString();
+    }
+
+    /**
+     * Cleans a line into the given builder, which can be reused between lines to avoid allocations.
+     *
+     * @param line to clean
+     * @param out where the cleaned line is appended
+     */
+    public void clean(CharSequence line, StringBuilder out) {
+        clean(line, 0, out);
+    }
+
+    private void clean(CharSequence line, int from, StringBuilder out) {
+        int length = line.length();
+        int i = from;
+        while (i < length) {
+            int node = root(line.charAt(i));
+            int matchEnd = -1;
+            String replacement = null;
+            for (int j = i + 1; node > 0; j++) {
+                if (replacements[node] != null) {
+                    matchEnd = j;
+                    replacement = replacements[node];
+                }
+                node = j < length ? child(node, fold(line.charAt(j))) : 0;
+            }
+            if (matchEnd < 0) {
+                out.append(line.charAt(i++));
+            } else {
+                out.append(replacement);
+                i = matchEnd;
+            }
+        }
+    }
+
+    /**
+     * Finds where the first replacement starts.
+     *
+     * @return index of the first match from the given index, -1 if none
+     */
+    private int nextMatch(CharSequence line, int from) {
+        int length = line.length();
+        for (int i = from; i < length; i++) {
+            for (int j = i + 1, node = root(line.charAt(i)); node > 0; j++) {
+                if (replacements[node] != null) {
+                    return i;
+                }
+                node = j < length ? child(node, fold(line.charAt(j))) : 0;
+            }
+        }
+        return -1;
+    }
+
+    private int root(char c) {
+        return c < ASCII ? rootAscii[c] : child(0, fold(c));
+    }
+
+    private int child(int node, char folded) {
+        int index = Arrays.binarySearch(keys[node], folded);
+        return index < 0 ? 0 : children[node][index];
+    }
+
+    /**
+     * Folds case the way {@link String#equalsIgnoreCase(String)} compares characters.
+     */
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static final class Node {
+
+        private final TreeMap<Character, Integer> next = new TreeMap<>();
+        private String replacement;
+    }
+
+}
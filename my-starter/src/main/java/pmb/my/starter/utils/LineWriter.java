@@ -0,0 +1,242 @@
+package pmb.my.starter.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import pmb.my.starter.exception.MinorException;
+import pmb.my.starter.metrics.Counter;
+import pmb.my.starter.metrics.LatencyHistogram;
+import pmb.my.starter.metrics.Metrics;
+
+/**
+ * Buffered writer of text lines, backed by a single {@link FileChannel}. Lines can be given one by one, as {@link Iterable} or as {@link Stream},
+ * as many times as needed before closing the writer. Lines are separated by {@link System#lineSeparator()}, like
+ * {@link Files#write(Path, Iterable, Charset, OpenOption...)}.
+ * <p>
+ * Once all lines are written, the writer must be {@link #commit() committed}: in {@link Mode#ATOMIC} mode, closing it without commit, for
+ * instance because the code producing the lines threw, discards the lines:
+ *
+ * <pre>
+ * try (LineWriter writer = LineWriter.open(file, charset, LineWriter.Mode.ATOMIC)) {
+ *     items.forEach(item -&gt; writer.write(format(item)));
+ *     writer.commit();
+ * }
+ * </pre>
+ *
+ * @see MyFileUtils#writeFile(File, Iterable, String, Mode)
+ */
+public final class LineWriter
+    implements AutoCloseable {
+
+    /**
+     * Default size of the buffer: 64 KB.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final LatencyHistogram WRITE_TIME = Metrics.histogram(Metrics.FILE_WRITE);
+    private static final Counter WRITE_BYTES = Metrics.counter(Metrics.FILE_WRITE_BYTES);
+
+    /**
+     * How the target file is written.
+     */
+    public enum Mode {
+        /**
+         * File is created or truncated.
+         */
+        TRUNCATE,
+        /**
+         * File is created or lines are added at its end.
+         */
+        APPEND,
+        /**
+         * Lines are written in a temporary file moved onto the target when committing, so readers never see a partially written file. The
+         * temporary file is deleted if the writer is closed without commit.
+         */
+        ATOMIC
+    }
+
+    private final Path target;
+    private final Path written;
+    private final Mode mode;
+    private final boolean sync;
+    private final FileChannel channel;
+    private final Writer writer;
+    private final long start;
+    private final long initialPosition;
+    private boolean failed;
+    private boolean committed;
+    private boolean closed;
+
+    private LineWriter(Path target, Charset charset, Mode mode, int bufferSize, boolean sync) throws IOException {
+        this.target = target;
+        this.mode = mode;
+        this.sync = sync;
+        if (mode == Mode.ATOMIC) {
+            // Created next to the target with default permissions, so the move stays on the same file store
+            written = target.toAbsolutePath().resolveSibling("." + target.getFileName() + "." + Uuids.fastRandomHex() + ".tmp");
+            channel = FileChannel.open(written, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        } else {
+            written = target;
+            channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    mode == Mode.APPEND ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        writer = Channels.newWriter(channel, charset.newEncoder(), bufferSize);
+        start = Metrics.start();
+        initialPosition = start == 0L ? 0L : channel.position();
+    }
+
+    /**
+     * Opens a writer with default buffer size and without sync.
+     *
+     * @param file to write into
+     * @param charset encoding
+     * @param mode how the file is written
+     * @return an opened writer, to close after use
+     */
+    public static LineWriter open(File file, Charset charset, Mode mode) {
+        return open(file, charset, mode, DEFAULT_BUFFER_SIZE, false);
+    }
+
+    /**
+     * Opens a writer.
+     *
+     * @param file to write into
+     * @param charset encoding
+     * @param mode how the file is written
+     * @param bufferSize size of the buffer in bytes
+     * @param sync if true, content is forced to the storage device when closing
+     * @return an opened writer, to close after use
+     */
+    public static LineWriter open(File file, Charset charset, Mode mode, int bufferSize, boolean sync) {
+        try {
+            return new LineWriter(file.toPath(), charset, mode, bufferSize, sync);
+        } catch (IOException e) {
+            throw new MinorException("Error when opening file: " + file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Writes a line followed by a line separator.
+     *
+     * @param line to write
+     * @return this writer
+     */
+    public LineWriter write(CharSequence line) {
+        try {
+            writer.append(line).append(System.lineSeparator());
+        } catch (IOException | RuntimeException e) {
+            failed = true;
+            throw new MinorException("Error when writing in file: " + target.toAbsolutePath(), e);
+        }
+        return this;
+    }
+
+    /**
+     * Writes the given lines.
+     *
+     * @param lines to write
+     * @return this writer
+     */
+    public LineWriter writeAll(Iterable<? extends CharSequence> lines) {
+        try {
+            lines.forEach(this::write);
+        } catch (RuntimeException e) {
+            failed = true;
+            throw e;
+        }
+        return this;
+    }
+
+    /**
+     * Writes the given lines, consuming the stream.
+     *
+     * @param lines to write
+     * @return this writer
+     */
+    public LineWriter writeAll(Stream<? extends CharSequence> lines) {
+        try {
+            lines.forEachOrdered(this::write);
+        } catch (RuntimeException e) {
+            failed = true;
+            throw e;
+        }
+        return this;
+    }
+
+    /**
+     * Closes the writer, publishing the written lines: in {@link Mode#ATOMIC} mode the temporary file replaces the target. Does nothing if already
+     * closed.
+     *
+     * @throws MinorException if a write failed, nothing is then published
+     */
+    public void commit() {
+        if (closed) {
+            return;
+        }
+        if (failed) {
+            close();
+            throw new MinorException("Error when committing file, a write failed: " + target.toAbsolutePath());
+        }
+        committed = true;
+        close();
+    }
+
+    /**
+     * Closes the writer without publishing anything in {@link Mode#ATOMIC} mode, the temporary file is deleted. In other modes it's the same as
+     * {@link #close()}.
+     */
+    public void abort() {
+        failed = true;
+        close();
+    }
+
+    /**
+     * Flushes the buffer, syncs if asked, and closes the channel. In {@link Mode#ATOMIC} mode the temporary file is deleted, unless the writer is
+     * being {@link #commit() committed}: it then replaces the target.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            try (channel; writer) {
+                writer.flush();
+                if (sync) {
+                    channel.force(true);
+                }
+                if (start != 0L) {
+                    WRITE_BYTES.add(channel.position() - initialPosition);
+                }
+            }
+            WRITE_TIME.recordSince(start);
+            if (mode == Mode.ATOMIC) {
+                if (committed && !failed) {
+                    MyFileUtils.moveAtomically(written, target);
+                } else {
+                    Files.deleteIfExists(written);
+                }
+            }
+        } catch (IOException e) {
+            if (mode == Mode.ATOMIC) {
+                try {
+                    Files.deleteIfExists(written);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw new MinorException("Error when closing file: " + target.toAbsolutePath(), e);
+        }
+    }
+
+}
@@ -0,0 +1,47 @@
+package pmb.my.starter.utils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * A comma separated list property, parsed once per properties change. Items are trimmed and blank ones ignored.
+ *
+ * @see PropertyHandle
+ */
+public final class ListProperty
+    extends PropertyHandle<List<String>> {
+
+    /**
+     * Constructor with an empty list as default value.
+     *
+     * @param key id of the property
+     */
+    public ListProperty(String key) {
+        this(key, List.of());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param key id of the property
+     * @param defaultValue value used when the property is blank or missing
+     */
+    public ListProperty(String key, List<String> defaultValue) {
+        super(key, List.copyOf(defaultValue));
+    }
+
+    @Override
+    protected List<String> parse(String value) {
+        return Arrays.stream(StringUtils.split(value, ',')).map(String::trim).filter(StringUtils::isNotEmpty).toList();
+    }
+
+    /**
+     * @return the unmodifiable list of values or the default one
+     */
+    public List<String> get() {
+        return value();
+    }
+
+}
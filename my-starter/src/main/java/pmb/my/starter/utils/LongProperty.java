@@ -0,0 +1,33 @@
+package pmb.my.starter.utils;
+
+/**
+ * A {@code long} property, parsed once per properties change.
+ *
+ * @see PropertyHandle
+ */
+public final class LongProperty
+    extends PropertyHandle<Long> {
+
+    /**
+     * Constructor.
+     *
+     * @param key id of the property
+     * @param defaultValue value used when the property is blank, missing or invalid
+     */
+    public LongProperty(String key, long defaultValue) {
+        super(key, defaultValue);
+    }
+
+    @Override
+    protected Long parse(String value) {
+        return Long.parseLong(value);
+    }
+
+    /**
+     * @return the property value or the default one
+     */
+    public long get() {
+        return value();
+    }
+
+}
@@ -6,6 +6,7 @@ import java.text.DecimalFormat;
 import java.util.Optional;
 import java.util.regex.Pattern;
 
+import pmb.my.starter.exception.Exceptions;
 import pmb.my.starter.exception.MinorException;
 
 /**
@@ -56,8 +57,6 @@ public final class MyConstant {
 
     private static final String[] FORBIDDEN_CHARACTERS_FILENAME = { "<", ">", ":", "\"", "/", "|", "*", "?" };
 
-    private static final DecimalFormat DECIMAL_FORMAT = new DecimalFormat("#0.00");
-
     public static final String REGEX_PUNCTUATION = "\\p{Punct}|\\s";
 
     public static final Pattern PATTERN_PUNCTUATION = Pattern.compile(REGEX_PUNCTUATION);
@@ -79,10 +78,11 @@ public final class MyConstant {
      * @param path the resource name
      * @return An input stream for reading the resource, if not found throw a {@link MinorException}
      * @see ClassLoader#getResourceAsStream(String)
+     * @see Exceptions
      */
     public static InputStream getResourceAsStream(String path) {
         return Optional.ofNullable(MyConstant.class.getClassLoader().getResourceAsStream(path))
-                .orElseThrow(() -> new MinorException("Can't find property file"));
+                .orElseThrow(() -> Exceptions.minor("Can't find property file"));
     }
 
     /**
@@ -92,8 +92,12 @@ public final class MyConstant {
         return FORBIDDEN_CHARACTERS_FILENAME;
     }
 
+    /**
+     * @return the decimal format of the current thread, not to be shared with other threads
+     * @see MyFormatter#getDecimalFormat()
+     */
     public static DecimalFormat getDecimalFormat() {
-        return DECIMAL_FORMAT;
+        return MyFormatter.getDecimalFormat();
     }
 
 }
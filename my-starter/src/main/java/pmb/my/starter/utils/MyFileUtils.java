@@ -1,32 +1,38 @@
 package pmb.my.starter.utils;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
+import java.util.zip.Deflater;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import pmb.my.starter.exception.Exceptions;
 import pmb.my.starter.exception.MajorException;
 import pmb.my.starter.exception.MinorException;
+import pmb.my.starter.metrics.Counter;
+import pmb.my.starter.metrics.LatencyHistogram;
+import pmb.my.starter.metrics.Metrics;
 
 /**
  * Utility class for handling files.
@@ -34,6 +40,12 @@ import pmb.my.starter.exception.MinorException;
 public final class MyFileUtils {
 
     private static final Logger LOG = LogManager.getLogger(MyFileUtils.class);
+    private static final LatencyHistogram READ_TIME = Metrics.histogram(Metrics.FILE_READ);
+    private static final Counter READ_BYTES = Metrics.counter(Metrics.FILE_READ_BYTES);
+    private static final LatencyHistogram WRITE_TIME = Metrics.histogram(Metrics.FILE_WRITE);
+    private static final Counter WRITE_BYTES = Metrics.counter(Metrics.FILE_WRITE_BYTES);
+    private static final LatencyHistogram SCAN_TIME = Metrics.histogram(Metrics.FOLDER_SCAN);
+    private static final Counter SCAN_FILES = Metrics.counter(Metrics.FOLDER_SCAN_FILES);
 
     private MyFileUtils() {
         throw new AssertionError("Must not be used");
@@ -60,9 +72,7 @@ public final class MyFileUtils {
      * @return a list of files
      */
     public static List<File> listFilesInFolder(final File folder, String extension, boolean recursive) {
-        List<File> result = new ArrayList<>();
-        listFilesForFolder(folder, result, Optional.ofNullable(extension).map(List::of).orElse(null), recursive);
-        return result;
+        return listFilesInFolder(folder, Optional.ofNullable(extension).map(List::of).orElse(null), recursive);
     }
 
     /**
@@ -72,25 +82,15 @@ public final class MyFileUtils {
      * @param extensions list of extension of files to research, all files if null
      * @param recursive if the search is recursive or not
      * @return a list of files
+     * @see FolderScanner
      */
     public static List<File> listFilesInFolder(final File folder, List<String> extensions, boolean recursive) {
-        List<File> result = new ArrayList<>();
-        listFilesForFolder(folder, result, extensions, recursive);
-        return result;
-    }
-
-    private static void listFilesForFolder(final File folder, List<File> files, List<String> extensions, boolean recursive) {
-        if (!folder.isDirectory()) {
-            files.add(folder);
-            return;
-        }
-        for (final File fileEntry : folder.listFiles()) {
-            if (recursive && fileEntry.isDirectory()) {
-                listFilesForFolder(fileEntry, files, extensions, recursive);
-            } else if (extensions == null || extensions.isEmpty()
-                || extensions.stream().anyMatch(extension -> StringUtils.endsWithIgnoreCase(fileEntry.getName(), extension))) {
-                files.add(fileEntry);
-            }
+        long start = Metrics.start();
+        try (Stream<Path> files = FolderScanner.scan(folder.toPath(), extensions, recursive)) {
+            List<File> result = files.map(Path::toFile).collect(Collectors.toList());
+            SCAN_TIME.recordSince(start);
+            SCAN_FILES.add(result.size());
+            return result;
         }
     }
 
@@ -101,7 +101,12 @@ public final class MyFileUtils {
      * @return la 1ère ligne
      */
     public static String readFirstLine(String filePath) {
-        return MyFileUtils.readFile(filePath).stream().limit(1).reduce("", (a, b) -> b);
+        File file = new File(filePath);
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), MyConstant.ANSI_CHARSET)) {
+            return Optional.ofNullable(reader.readLine()).orElse("");
+        } catch (IOException e) {
+            throw Exceptions.minor("Error when reading file: " + file.getAbsolutePath(), e);
+        }
     }
 
     /**
@@ -142,27 +147,16 @@ public final class MyFileUtils {
      * Zip the given file.
      *
      * @param file to zip
-     * @return {@link ByteArrayOutputStream} the files zipped
+     * @return {@link File} the zip created next to the given file
      * @throws MajorException if something went wrong
+     * @see ZipArchiver
      */
     public static File zipFile(File file) throws MajorException {
         LOG.debug("Start zipFiles");
         String zipName = file.getParent() + MyConstant.FS + StringUtils.substringBeforeLast(file.getName(), MyConstant.DOT) + ".zip";
-        try (FileOutputStream fos = new FileOutputStream(zipName);
-                ZipOutputStream zipOut = new ZipOutputStream(fos);
-                FileInputStream fis = new FileInputStream(file)) {
-            ZipEntry zipEntry = new ZipEntry(file.getName());
-            zipOut.putNextEntry(zipEntry);
-            byte[] bytes = new byte[1024];
-            int length;
-            while ((length = fis.read(bytes)) >= 0) {
-                zipOut.write(bytes, 0, length);
-            }
-        } catch (IOException e) {
-            throw new MajorException("Exception thrown when zipping file: " + file.getName(), e);
-        }
+        File zip = ZipArchiver.zip(List.of(file), new File(zipName), Deflater.DEFAULT_COMPRESSION).archive();
         LOG.debug("End zipFiles");
-        return new File(zipName);
+        return zip;
     }
 
     /**
@@ -173,10 +167,79 @@ public final class MyFileUtils {
      * @return a list of String
      */
     public static List<String> readFile(File file, String charsetName) {
+        long start = Metrics.start();
         try (Stream<String> lines = Files.lines(file.toPath(), Charset.forName(charsetName))) {
             return lines.collect(Collectors.toList());
         } catch (IOException e) {
-            throw new MinorException("Error when reading file: " + file.getAbsolutePath(), e);
+            throw Exceptions.minor("Error when reading file: " + file.getAbsolutePath(), e);
+        } finally {
+            recordRead(file, start);
+        }
+    }
+
+    /**
+     * Lazily reads the given file line by line, lines are only loaded when the stream is consumed. The returned stream must be closed, for instance
+     * with a try-with-resources statement.
+     *
+     * @param file to read
+     * @param charsetName encoding
+     * @return a stream of lines, to close after use
+     * @see Files#lines(java.nio.file.Path, Charset)
+     */
+    public static Stream<String> streamFile(File file, String charsetName) {
+        long start = Metrics.start();
+        try {
+            Stream<String> lines = Files.lines(file.toPath(), Charset.forName(charsetName));
+            return start == 0L ? lines : lines.onClose(() -> recordRead(file, start));
+        } catch (IOException e) {
+            throw Exceptions.minor("Error when reading file: " + file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Reads the given file line by line and gives each line to the given consumer, the file is never fully loaded in memory.
+     *
+     * @param file to read
+     * @param charsetName encoding
+     * @param consumer called for each line, in file order
+     */
+    public static void readFile(File file, String charsetName, Consumer<String> consumer) {
+        long start = Metrics.start();
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), Charset.forName(charsetName))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                consumer.accept(line);
+            }
+        } catch (IOException e) {
+            throw Exceptions.minor("Error when reading file: " + file.getAbsolutePath(), e);
+        } finally {
+            recordRead(file, start);
+        }
+    }
+
+    /**
+     * Reads completely each of the given files, a file failing to be read doesn't stop the others.
+     *
+     * @param files to read
+     * @param charsetName encoding
+     * @return lines of each read file, and the files that couldn't be read
+     */
+    public static BatchResult<File, List<String>> readFiles(Collection<File> files, String charsetName) {
+        BatchResult<File, List<String>> result = new BatchResult<>();
+        for (File file : files) {
+            try {
+                result.succeeded(file, readFile(file, charsetName));
+            } catch (MinorException | UncheckedIOException e) {
+                result.failed(file, e);
+            }
+        }
+        return result;
+    }
+
+    private static void recordRead(File file, long start) {
+        if (start != 0L) {
+            READ_TIME.recordSince(start);
+            READ_BYTES.add(file.length());
         }
     }
 
@@ -201,18 +264,70 @@ public final class MyFileUtils {
     }
 
     /**
-     * Writes in given file the given content. The file is created if it doesn't exist.
+     * Writes in given file the given content through a buffered {@link LineWriter}, without materializing the lines.
+     *
+     * @param file to write into
+     * @param lines content to write
+     * @param charsetName encoding
+     * @param mode truncate, append or atomic replacement
+     */
+    public static void writeFile(File file, Iterable<? extends CharSequence> lines, String charsetName, LineWriter.Mode mode) {
+        try (LineWriter writer = LineWriter.open(file, Charset.forName(charsetName), mode)) {
+            writer.writeAll(lines);
+            writer.commit();
+        }
+    }
+
+    /**
+     * Writes in given file the given content through a buffered {@link LineWriter}, consuming the stream without materializing the lines.
+     *
+     * @param file to write into
+     * @param lines content to write
+     * @param charsetName encoding
+     * @param mode truncate, append or atomic replacement
+     */
+    public static void writeFile(File file, Stream<? extends CharSequence> lines, String charsetName, LineWriter.Mode mode) {
+        try (LineWriter writer = LineWriter.open(file, Charset.forName(charsetName), mode)) {
+            writer.writeAll(lines);
+            writer.commit();
+        }
+    }
+
+    /**
+     * Moves a file onto the given target, replacing it atomically when the file system supports it.
+     *
+     * @param source file to move
+     * @param target destination, replaced if it exists
+     * @throws IOException if the move failed
+     */
+    public static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            LOG.debug("Atomic move not supported for {}", target, e);
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Writes in given file the given content. The file is created if it doesn't exist, truncated otherwise.
      *
      * @param file to write into
      * @param lines content to write
      * @param charsetName encoding
      */
     public static void writeFile(File file, List<String> lines, String charsetName) {
+        long start = Metrics.start();
         try {
-            Files.write(file.toPath(), lines, Charset.forName(charsetName), StandardOpenOption.CREATE);
+            Files.write(file.toPath(), lines, Charset.forName(charsetName), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
         } catch (IOException e) {
             throw new MinorException("Error when writing in file: " + file.getAbsolutePath(), e);
         }
+        if (start != 0L) {
+            WRITE_TIME.recordSince(start);
+            WRITE_BYTES.add(file.length());
+        }
     }
 
     /**
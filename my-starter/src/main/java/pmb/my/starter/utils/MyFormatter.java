@@ -0,0 +1,111 @@
+package pmb.my.starter.utils;
+
+import java.text.DecimalFormat;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Thread-safe formatters for dates and decimals.
+ * <p>
+ * Date formatters are immutable and compiled once. Formatting the current date is cached for the current second, so calling it in a loop only
+ * compares the clock. Decimal formats aren't thread-safe, so each thread has its own.
+ */
+public final class MyFormatter {
+
+    /**
+     * Date and time usable in a file name: {@code yyyy-MM-dd HH-mm}.
+     */
+    public static final DateTimeFormatter DATE_TIME_FILE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH-mm");
+
+    /**
+     * Time only: {@code HH:mm:ss}.
+     */
+    public static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    /**
+     * Pattern of {@link #getDecimalFormat()}.
+     */
+    public static final String DECIMAL_PATTERN = "#0.00";
+
+    private static final ThreadLocal<DecimalFormat> DECIMAL_FORMAT = ThreadLocal.withInitial(() -> new DecimalFormat(DECIMAL_PATTERN));
+
+    private static final NowFormatter DATE_TIME_FILE_NOW = new NowFormatter(DATE_TIME_FILE);
+    private static final NowFormatter TIME_NOW = new NowFormatter(TIME);
+
+    private MyFormatter() {
+        throw new AssertionError("Must not be used");
+    }
+
+    /**
+     * @return current date and time formatted with {@link #DATE_TIME_FILE}
+     */
+    public static String dateTimeFileNow() {
+        return DATE_TIME_FILE_NOW.format();
+    }
+
+    /**
+     * @return current time formatted with {@link #TIME}
+     */
+    public static String timeNow() {
+        return TIME_NOW.format();
+    }
+
+    /**
+     * Gets the decimal format of the current thread, with {@link #DECIMAL_PATTERN} pattern. It must not be shared with other threads.
+     *
+     * @return a format with 2 fraction digits
+     */
+    public static DecimalFormat getDecimalFormat() {
+        return DECIMAL_FORMAT.get();
+    }
+
+    /**
+     * Formats a decimal with 2 fraction digits, thread-safe.
+     *
+     * @param value to format
+     * @return formatted value, like {@code 3.14}
+     * @see #getDecimalFormat()
+     */
+    public static String formatDecimal(double value) {
+        return DECIMAL_FORMAT.get().format(value);
+    }
+
+    /**
+     * Formats the current date, reusing the last result during the same second in the same time zone.
+     */
+    private static final class NowFormatter {
+
+        private final DateTimeFormatter formatter;
+        private volatile Cached last = new Cached(Long.MIN_VALUE, null, null);
+
+        private NowFormatter(DateTimeFormatter formatter) {
+            this.formatter = formatter;
+        }
+
+        private String format() {
+            ZoneId zone = ZoneId.systemDefault();
+            long second = System.currentTimeMillis() / 1000L;
+            Cached cached = last;
+            if (cached.second != second || !zone.equals(cached.zone)) {
+                cached = new Cached(second, zone, formatter.format(Instant.ofEpochSecond(second).atZone(zone)));
+                last = cached;
+            }
+            return cached.value;
+        }
+    }
+
+    private static final class Cached {
+
+        private final long second;
+        private final ZoneId zone;
+        private final String value;
+
+        private Cached(long second, ZoneId zone, String value) {
+            this.second = second;
+            this.zone = zone;
+            this.value = value;
+        }
+    }
+
+}
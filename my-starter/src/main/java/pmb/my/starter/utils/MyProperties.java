@@ -2,21 +2,41 @@ package pmb.my.starter.utils;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import pmb.my.starter.exception.MinorException;
+import pmb.my.starter.metrics.LatencyHistogram;
+import pmb.my.starter.metrics.Metrics;
 
 /**
  * Handles configuration properties file.
+ * <p>
+ * Properties are held in an immutable snapshot replaced as a whole when loading or setting a property, so reading never locks. Listeners are
+ * notified of each new snapshot, and the configuration file can be watched to be reloaded when it changes.
  *
  * @see MyConstant#CONFIGURATION_FILENAME
  */
@@ -24,37 +44,116 @@ public final class MyProperties {
 
     private static final Logger LOG = LogManager.getLogger(MyProperties.class);
     private static final String LEVEL_KEY = "level";
+    private static final Object LOCK = new Object();
+    private static final long DEBOUNCE_MS = 100L;
+    private static final LatencyHistogram LOAD_TIME = Metrics.histogram(Metrics.PROPERTIES_LOAD);
 
     /**
-     * {@link Properties} contains application properties.
+     * Immutable snapshot of application properties.
      */
-    private static Properties prop;
+    private static volatile Map<String, String> prop;
 
     /**
      * Configuration file path.
      */
-    private static String configPath;
+    private static volatile String configPath;
+
+    /**
+     * Values to save: the configuration file ones, or resources ones if there is no file, and the ones set since the last load.
+     */
+    private static Map<String, String> userValues = new HashMap<>();
+
+    /**
+     * Notified with previous and new snapshots, applies the log level by default.
+     */
+    private static final List<BiConsumer<Map<String, String>, Map<String, String>>> LISTENERS = new CopyOnWriteArrayList<>(
+            List.of((previous, current) -> {
+                if (!Objects.equals(previous.get(LEVEL_KEY), current.get(LEVEL_KEY))) {
+                    VariousUtils.setLogLevel(current.get(LEVEL_KEY));
+                }
+            }));
+
+    /**
+     * Thread reloading properties when the configuration file changes, null if not watching.
+     */
+    private static Thread watcher;
 
     private MyProperties() {
         throw new AssertionError("Must not be used");
     }
 
     /**
-     * Loads properties from configuration file specified by {@link MyProperties#configPath}. If not found or not defined uses the configuration file
-     * in resources.
+     * Loads properties, merging in this order, each layer overriding the previous ones:
+     * <ol>
+     * <li>the configuration file in resources,</li>
+     * <li>the configuration file specified by {@link MyProperties#configPath}, if defined and found,</li>
+     * <li>environment variables named after keys of previous layers, upper case with dots and dashes replaced by underscores
+     * ({@code my.key} is overridden by {@code MY_KEY}),</li>
+     * <li>system properties named after keys of previous layers.</li>
+     * </ol>
+     * Values {@link #set(String, String) set} since the last load are dropped. Layers are merged once here, reading a property is a single lookup.
      */
     private static void load() {
         LOG.debug("Start loadProperties");
-        Optional<File> config = Optional.ofNullable(configPath).map(Path::of).map(Path::toFile).filter(File::exists);
-        try (InputStream in = config.isPresent() ? new FileInputStream(config.get())
-                                                 : MyConstant.getResourceAsStream(MyConstant.CONFIGURATION_FILENAME)) {
-            prop = new Properties();
-            prop.load(in);
-            get(LEVEL_KEY).ifPresent(VariousUtils::setLogLevel);
+        long start = Metrics.start();
+        synchronized (LOCK) {
+            boolean hasDefaults = MyConstant.class.getClassLoader().getResource(MyConstant.CONFIGURATION_FILENAME) != null;
+            Optional<File> config = Optional.ofNullable(configPath).map(Path::of).map(Path::toFile).filter(File::exists);
+            if (!hasDefaults && config.isEmpty()) {
+                throw new MinorException("Can't find property file");
+            }
+            Map<String, String> defaults = hasDefaults ? read(MyConstant.getResourceAsStream(MyConstant.CONFIGURATION_FILENAME)) : Map.of();
+            Map<String, String> file;
+            try {
+                file = config.isPresent() ? read(new FileInputStream(config.get())) : new HashMap<>();
+            } catch (IOException e) {
+                throw new MinorException("Error when importing properties", e);
+            }
+            Map<String, String> merged = new HashMap<>(defaults);
+            merged.putAll(file);
+            Map<String, String> environment = new HashMap<>();
+            for (String key : merged.keySet()) {
+                Optional.ofNullable(System.getenv(StringUtils.replaceChars(key.toUpperCase(Locale.ROOT), ".-", "__")))
+                        .ifPresent(value -> environment.put(key, value));
+                Optional.ofNullable(System.getProperty(key)).ifPresent(value -> environment.put(key, value));
+            }
+            merged.putAll(environment);
+            userValues = file;
+            publish(merged);
+        }
+        LOAD_TIME.recordSince(start);
+        LOG.debug("End loadProperties");
+    }
+
+    private static Map<String, String> read(InputStream stream) {
+        try (InputStream in = stream) {
+            Properties properties = new Properties();
+            properties.load(in);
+            Map<String, String> loaded = new HashMap<>();
+            properties.stringPropertyNames().forEach(key -> loaded.put(key, properties.getProperty(key)));
+            return loaded;
         } catch (IOException e) {
             throw new MinorException("Error when importing properties", e);
         }
-        LOG.debug("End loadProperties");
+    }
+
+    /**
+     * Replaces the snapshot and notifies listeners if properties changed, must be called holding {@link #LOCK}.
+     */
+    private static void publish(Map<String, String> properties) {
+        Map<String, String> previous = Optional.ofNullable(prop).orElse(Map.of());
+        if (prop != null && previous.equals(properties)) {
+            return;
+        }
+        Map<String, String> current = Map.copyOf(properties);
+        prop = current;
+        LISTENERS.forEach(listener -> {
+            try {
+                listener.accept(previous, current);
+            } catch (RuntimeException e) {
+                LOG.error("Error in properties listener", e);
+            }
+        });
     }
 
     /**
@@ -75,8 +174,7 @@ public final class MyProperties {
      * @return the property sought
      */
     public static Optional<String> get(String key) {
-        checkIfLoaded();
-        return Optional.ofNullable(prop.getProperty(key)).filter(StringUtils::isNotBlank);
+        return Optional.ofNullable(snapshot().get(key)).filter(StringUtils::isNotBlank);
     }
 
     /**
@@ -98,44 +196,158 @@ public final class MyProperties {
      * @param value to set
      */
     public static void set(String key, String value) {
-        checkIfLoaded();
-        prop.setProperty(key, value);
-        if (StringUtils.equals(key, LEVEL_KEY)) {
-            VariousUtils.setLogLevel(value);
+        synchronized (LOCK) {
+            Map<String, String> properties = new HashMap<>(snapshot());
+            properties.put(key, value);
+            userValues.put(key, value);
+            publish(properties);
         }
     }
 
     /**
-     * Saves properties in configuration file.
+     * Saves properties in configuration file: values of the file itself and values {@link #set(String, String) set}, but not the ones coming from
+     * resources defaults, environment variables or system properties. The file is written next to it then moved, so it's never seen partially written
+     * when watched.
      */
     public static void save() {
-        try (FileOutputStream out = new FileOutputStream(Optional.ofNullable(configPath).orElse(MyConstant.getConfigPath()), false)) {
-            prop.store(out, null);
+        Properties properties = new Properties();
+        synchronized (LOCK) {
+            snapshot();
+            properties.putAll(userValues);
+        }
+        Path target = Path.of(Optional.ofNullable(configPath).orElse(MyConstant.getConfigPath())).toAbsolutePath();
+        Path tmp = target.resolveSibling("." + target.getFileName() + "." + Uuids.fastRandomHex() + ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                properties.store(out, null);
+            }
+            MyFileUtils.moveAtomically(tmp, target);
         } catch (IOException e) {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
             throw new MinorException("Error when saving properties", e);
         }
     }
 
     /**
-     * Defines a configuration file overwriting the default one in resources directory and reloads properties.
+     * Defines a configuration file overwriting the default one in resources directory and reloads properties. If watching, the new file is watched
+     * instead.
      *
      * @param configPath a path
      */
     public static void setConfigPath(String configPath) {
         MyProperties.configPath = configPath;
         reload();
+        synchronized (LOCK) {
+            if (watcher != null) {
+                stopWatching();
+                startWatching();
+            }
+        }
+    }
+
+    /**
+     * Registers a listener notified each time properties change, with the previous and the new properties.
+     *
+     * @param listener to add
+     */
+    public static void addListener(BiConsumer<Map<String, String>, Map<String, String>> listener) {
+        LISTENERS.add(listener);
+    }
+
+    /**
+     * Unregisters a listener.
+     *
+     * @param listener to remove
+     */
+    public static void removeListener(BiConsumer<Map<String, String>, Map<String, String>> listener) {
+        LISTENERS.remove(listener);
     }
 
     /**
-     * Loads properties if not loaded yet.
+     * Starts watching the configuration file defined with {@link #setConfigPath(String)}, properties are reloaded each time it changes.
+     */
+    public static void startWatching() {
+        synchronized (LOCK) {
+            if (watcher != null) {
+                return;
+            }
+            Path config = Optional.ofNullable(configPath).map(Path::of).map(Path::toAbsolutePath)
+                    .orElseThrow(() -> new MinorException("No configuration file to watch"));
+            WatchService service;
+            try {
+                service = config.getFileSystem().newWatchService();
+                config.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            } catch (IOException e) {
+                throw new MinorException("Error when watching properties: " + config, e);
+            }
+            watcher = new Thread(() -> watch(service, config.getFileName()), "my-properties-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+        }
+    }
+
+    /**
+     * Stops watching the configuration file.
+     */
+    public static void stopWatching() {
+        synchronized (LOCK) {
+            if (watcher != null) {
+                watcher.interrupt();
+                watcher = null;
+            }
+        }
+    }
+
+    private static void watch(WatchService service, Path fileName) {
+        try (service) {
+            while (!Thread.currentThread().isInterrupted()) {
+                boolean changed = false;
+                // Waits for the end of a burst of events, editors often truncate the file before writing it
+                for (WatchKey key = service.take(); key != null; key = service.poll(DEBOUNCE_MS, TimeUnit.MILLISECONDS)) {
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        changed |= fileName.equals(event.context());
+                    }
+                    key.reset();
+                }
+                if (changed) {
+                    LOG.debug("Configuration file changed, reloading properties");
+                    try {
+                        reload();
+                    } catch (MinorException e) {
+                        LOG.error("Error when reloading properties", e);
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            LOG.warn("Error when closing properties watch service", e);
+        }
+    }
+
+    /**
+     * Gets current properties, loading them if not loaded yet. The same instance is returned until properties change.
+     *
+     * @return an immutable snapshot
      */
-    private static void checkIfLoaded() {
-        if (prop == null) {
-            load();
+    static Map<String, String> snapshot() {
+        Map<String, String> snapshot = prop;
+        if (snapshot == null) {
+            synchronized (LOCK) {
+                if (prop == null) {
+                    load();
+                }
+                snapshot = prop;
+            }
         }
-        if (prop == null) {
+        if (snapshot == null) {
             throw new MinorException("Unable to load properties");
         }
+        return snapshot;
     }
 
 }
@@ -0,0 +1,212 @@
+package pmb.my.starter.utils;
+
+import java.util.Arrays;
+import java.util.stream.DoubleStream;
+
+/**
+ * Statistics over primitive {@code double} values.
+ * <p>
+ * Median and quantiles are exact, computed in linear time with a quickselect on a copy of the values. For data sets too large to be kept in memory,
+ * use a {@link QuantileSketch}. Values must not contain {@link Double#NaN}.
+ *
+ * @see StatsAccumulator
+ */
+public final class MyStatistics {
+
+    private MyStatistics() {
+        throw new AssertionError("Must not be used");
+    }
+
+    /**
+     * Computes count, mean, variance, min and max in a single pass, in parallel if the stream is.
+     *
+     * @param values to summarize
+     * @return the accumulated statistics
+     */
+    public static StatsAccumulator summarize(DoubleStream values) {
+        return values.collect(StatsAccumulator::new, StatsAccumulator::accept, StatsAccumulator::combine);
+    }
+
+    /**
+     * Computes count, mean, variance, min and max in a single pass, in parallel for large arrays.
+     *
+     * @param values to summarize
+     * @return the accumulated statistics
+     */
+    public static StatsAccumulator summarize(double... values) {
+        DoubleStream stream = Arrays.stream(values);
+        return summarize(values.length > 1 << 16 ? stream.parallel() : stream);
+    }
+
+    /**
+     * Computes an approximate quantiles sketch, in parallel if the stream is.
+     *
+     * @param values to sketch
+     * @return the sketch
+     */
+    public static QuantileSketch sketch(DoubleStream values) {
+        return values.collect(QuantileSketch::new, QuantileSketch::accept, QuantileSketch::merge);
+    }
+
+    /**
+     * Calculates the median, the mean of the two middle values for an even size. The given array isn't modified.
+     *
+     * @param values an array of numbers
+     * @return the median, 0 if empty
+     */
+    public static double median(double... values) {
+        if (values.length == 0) {
+            return 0D;
+        }
+        double[] copy = values.clone();
+        int half = copy.length / 2;
+        select(copy, half);
+        if (copy.length % 2 != 0) {
+            return copy[half];
+        }
+        // Values before the middle one are smaller, the other middle value is their maximum
+        double lower = copy[0];
+        for (int i = 1; i < half; i++) {
+            lower = Math.max(lower, copy[i]);
+        }
+        return (lower + copy[half]) / 2D;
+    }
+
+    /**
+     * Calculates a quantile, linearly interpolated between the closest ranks. The given array isn't modified.
+     *
+     * @param values an array of numbers
+     * @param fraction from 0 (min) to 1 (max), 0.5 for the median
+     * @return the quantile, 0 if empty
+     */
+    public static double quantile(double[] values, double fraction) {
+        if (fraction < 0D || fraction > 1D) {
+            throw new IllegalArgumentException("Fraction must be between 0 and 1: " + fraction);
+        }
+        if (values.length == 0) {
+            return 0D;
+        }
+        double[] copy = values.clone();
+        double position = fraction * (copy.length - 1);
+        int index = (int) position;
+        select(copy, index);
+        double weight = position - index;
+        if (weight == 0D) {
+            return copy[index];
+        }
+        // Values after the selected one are greater, the next rank is their minimum
+        double upper = copy[index + 1];
+        for (int i = index + 2; i < copy.length; i++) {
+            upper = Math.min(upper, copy[i]);
+        }
+        return copy[index] + weight * (upper - copy[index]);
+    }
+
+    /**
+     * Partially sorts the array so that the value at index {@code k} is the one it would have if the array was sorted, smaller values before it and
+     * greater after.
+     *
+     * @param values to partition in place
+     * @param k index of the wanted value
+     */
+    static void select(double[] values, int k) {
+        int low = 0;
+        int high = values.length - 1;
+        while (high > low) {
+            int middle = (low + high) >>> 1;
+            // Median of three as pivot, sorted in place to bound the partition loops
+            if (values[middle] < values[low]) {
+                swap(values, low, middle);
+            }
+            if (values[high] < values[low]) {
+                swap(values, low, high);
+            }
+            if (values[high] < values[middle]) {
+                swap(values, middle, high);
+            }
+            double pivot = values[middle];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (values[i] < pivot) {
+                    i++;
+                }
+                while (values[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(values, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                high = j;
+            } else if (k >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Same as {@link #select(double[], int)} for comparable objects.
+     *
+     * @param <T> type of values
+     * @param values to partition in place
+     * @param k index of the wanted value
+     */
+    static <T extends Comparable<? super T>> void select(T[] values, int k) {
+        int low = 0;
+        int high = values.length - 1;
+        while (high > low) {
+            int middle = (low + high) >>> 1;
+            if (values[middle].compareTo(values[low]) < 0) {
+                swap(values, low, middle);
+            }
+            if (values[high].compareTo(values[low]) < 0) {
+                swap(values, low, high);
+            }
+            if (values[high].compareTo(values[middle]) < 0) {
+                swap(values, middle, high);
+            }
+            T pivot = values[middle];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (values[i].compareTo(pivot) < 0) {
+                    i++;
+                }
+                while (values[j].compareTo(pivot) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(values, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                high = j;
+            } else if (k >= i) {
+                low = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static void swap(double[] values, int i, int j) {
+        double tmp = values[i];
+        values[i] = values[j];
+        values[j] = tmp;
+    }
+
+    private static <T> void swap(T[] values, int i, int j) {
+        T tmp = values[i];
+        values[i] = values[j];
+        values[j] = tmp;
+    }
+
+}
@@ -0,0 +1,347 @@
+package pmb.my.starter.utils;
+
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Parses numbers from any {@link CharSequence} without allocating, accepting both {@code .} and {@code ,} as decimal separator.
+ * <p>
+ * Plain decimals of up to 15 significant digits and 22 fraction digits are computed directly, which is exact; other inputs (more digits, exponents,
+ * {@code NaN}...) fall back to {@link Double#parseDouble(String)}.
+ * <p>
+ * The {@code parseLong}, {@code parseInt} and {@code parseDouble} methods follow instead the syntax of {@link Long#parseLong(String)} and
+ * {@link Double#parseDouble(String)}, but return a default value rather than throwing an exception on invalid input. They're meant for bulk imports
+ * where blank or invalid cells are frequent.
+ */
+public final class NumberParser {
+
+    private static final int MAX_FAST_DIGITS = 15;
+
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+        1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    private NumberParser() {
+        throw new AssertionError("Must not be used");
+    }
+
+    /**
+     * Parses a decimal number.
+     *
+     * @param text to parse, surrounding whitespaces are ignored
+     * @return the parsed value
+     * @throws NumberFormatException if the text isn't a number
+     */
+    public static double parseDecimal(CharSequence text) {
+        return parseDecimal(text, 0, text.length());
+    }
+
+    /**
+     * Parses a percentage: the decimal number before the first {@code %}, or the whole text if none.
+     *
+     * @param text to parse, like {@code 12,5 %}
+     * @return the parsed value, {@code 12.5} for {@code 12,5 %}
+     * @throws NumberFormatException if the text isn't a percentage
+     */
+    public static double parsePercentage(CharSequence text) {
+        int end = StringUtils.indexOf(text, '%');
+        return parseDecimal(text, 0, end < 0 ? text.length() : end);
+    }
+
+    /**
+     * Parses a decimal number in a region of the given text.
+     *
+     * @param text containing the number
+     * @param begin index of the first character, inclusive
+     * @param end index of the last character, exclusive
+     * @return the parsed value
+     * @throws NumberFormatException if the region isn't a number
+     */
+    public static double parseDecimal(CharSequence text, int begin, int end) {
+        return parseDecimal(text, begin, end, true, 0D);
+    }
+
+    /**
+     * Parses a decimal number in a region of the given text, with {@code .} or {@code ,} separator, without throwing any exception.
+     *
+     * @param text containing the number
+     * @param begin index of the first character, inclusive
+     * @param end index of the last character, exclusive
+     * @param defaultValue returned if the region is blank or invalid
+     * @return the parsed value or the default one
+     */
+    public static double parseDecimal(CharSequence text, int begin, int end, double defaultValue) {
+        return parseDecimal(text, begin, end, false, defaultValue);
+    }
+
+    /**
+     * @param strict if true, throws {@link NumberFormatException} for an invalid region, otherwise returns the default value
+     */
+    private static double parseDecimal(CharSequence text, int begin, int end, boolean strict, double defaultValue) {
+        int from = begin;
+        int to = end;
+        while (from < to && text.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && text.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        int i = from;
+        boolean negative = false;
+        if (i < to && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int significant = 0;
+        int fraction = -1;
+        for (; i < to; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+                if (mantissa != 0 || c != '0') {
+                    significant++;
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (fraction >= 0) {
+                    fraction++;
+                }
+                if (significant > MAX_FAST_DIGITS) {
+                    return slowParse(text, from, to, strict, defaultValue);
+                }
+            } else if ((c == '.' || c == ',') && fraction < 0) {
+                fraction = 0;
+            } else {
+                return slowParse(text, from, to, strict, defaultValue);
+            }
+        }
+        if (digits == 0 || fraction >= POWERS_OF_TEN.length) {
+            return slowParse(text, from, to, strict, defaultValue);
+        }
+        double value = fraction > 0 ? mantissa / POWERS_OF_TEN[fraction] : mantissa;
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses an integer, blank being zero.
+     *
+     * @param text to parse, not trimmed
+     * @return the parsed value, 0 if blank
+     * @throws NumberFormatException if the text isn't an integer
+     * @see Integer#parseInt(CharSequence, int, int, int)
+     */
+    public static int parseIntOrZero(CharSequence text) {
+        return StringUtils.isBlank(text) ? 0 : Integer.parseInt(text, 0, text.length(), 10);
+    }
+
+    /**
+     * Checks if a text is a valid input for {@link Long#parseLong(String)}, without throwing any exception.
+     *
+     * @param text to check
+     * @return true if it can be parsed as a long
+     */
+    public static boolean isLong(CharSequence text) {
+        // An invalid text gives each default value
+        return text != null && parseLong(text, 0L) == parseLong(text, 1L);
+    }
+
+    /**
+     * Parses a long like {@link Long#parseLong(String)}.
+     *
+     * @param text to parse, not trimmed
+     * @param defaultValue returned if the text is null, blank or invalid
+     * @return the parsed value or the default one
+     */
+    public static long parseLong(CharSequence text, long defaultValue) {
+        return text == null ? defaultValue : parseLong(text, 0, text.length(), defaultValue);
+    }
+
+    /**
+     * Parses a long like {@link Long#parseLong(CharSequence, int, int, int)} in a region of the given text.
+     *
+     * @param text containing the number
+     * @param begin index of the first character, inclusive
+     * @param end index of the last character, exclusive
+     * @param defaultValue returned if the region is empty or invalid
+     * @return the parsed value or the default one
+     */
+    public static long parseLong(CharSequence text, int begin, int end, long defaultValue) {
+        if (begin >= end) {
+            return defaultValue;
+        }
+        int i = begin;
+        boolean negative = false;
+        char first = text.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++i == end) {
+                return defaultValue;
+            }
+        }
+        // Accumulates negatively, like Long#parseLong, to reach Long.MIN_VALUE
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyLimit = limit / 10;
+        long result = 0;
+        for (; i < end; i++) {
+            int digit = Character.digit(text.charAt(i), 10);
+            if (digit < 0 || result < multiplyLimit) {
+                return defaultValue;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return defaultValue;
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Parses an int like {@link Integer#parseInt(String)}.
+     *
+     * @param text to parse, not trimmed
+     * @param defaultValue returned if the text is null, blank, invalid or out of range
+     * @return the parsed value or the default one
+     */
+    public static int parseInt(CharSequence text, int defaultValue) {
+        long value = parseLong(text, Long.MIN_VALUE);
+        return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? defaultValue : (int) value;
+    }
+
+    /**
+     * Checks if a text is a valid input for {@link Double#parseDouble(String)}, without throwing any exception: a decimal, with an optional exponent
+     * and type suffix, an hexadecimal floating point, {@code NaN} or {@code Infinity}, surrounded by optional whitespaces.
+     *
+     * @param text to check
+     * @return true if it can be parsed as a double
+     */
+    public static boolean isDouble(CharSequence text) {
+        return text != null && isDouble(text, 0, text.length(), '.');
+    }
+
+    /**
+     * Checks a region of the text like {@link #isDouble(CharSequence)}.
+     *
+     * @param comma accepted decimal separator besides {@code .}
+     */
+    private static boolean isDouble(CharSequence text, int begin, int end, char comma) {
+        int to = end;
+        int i = begin;
+        while (i < to && text.charAt(i) <= ' ') {
+            i++;
+        }
+        while (to > i && text.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        if (i < to && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            i++;
+        }
+        if (regionEquals(text, i, to, "NaN") || regionEquals(text, i, to, "Infinity")) {
+            return true;
+        }
+        boolean hexadecimal = to - i > 2 && text.charAt(i) == '0' && (text.charAt(i + 1) == 'x' || text.charAt(i + 1) == 'X');
+        int radix = 10;
+        if (hexadecimal) {
+            i += 2;
+            radix = 16;
+        }
+        int start = i;
+        i = skipDigits(text, i, to, radix);
+        int digits = i - start;
+        if (i < to && (text.charAt(i) == '.' || text.charAt(i) == comma)) {
+            int fraction = ++i;
+            i = skipDigits(text, i, to, radix);
+            digits += i - fraction;
+        }
+        if (digits == 0) {
+            return false;
+        }
+        char exponent = hexadecimal ? 'p' : 'e';
+        if (i < to && Character.toLowerCase(text.charAt(i)) == exponent) {
+            i++;
+            if (i < to && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                i++;
+            }
+            int exponentStart = i;
+            i = skipDigits(text, i, to, 10);
+            if (i == exponentStart) {
+                return false;
+            }
+        } else if (hexadecimal) {
+            return false;
+        }
+        if (i < to && "fFdD".indexOf(text.charAt(i)) >= 0) {
+            i++;
+        }
+        return i == to;
+    }
+
+    /**
+     * Parses a double like {@link Double#parseDouble(String)}.
+     *
+     * @param text to parse, surrounding whitespaces are ignored
+     * @param defaultValue returned if the text is null, blank or invalid
+     * @return the parsed value or the default one
+     */
+    public static double parseDouble(CharSequence text, double defaultValue) {
+        return isDouble(text) ? parseDecimal(text) : defaultValue;
+    }
+
+    /**
+     * Parses a column of longs.
+     *
+     * @param column texts to parse
+     * @param defaultValue for null, blank or invalid texts
+     * @return parsed values, in the same order
+     * @see #parseLong(CharSequence, long)
+     */
+    public static long[] parseLongs(List<? extends CharSequence> column, long defaultValue) {
+        long[] values = new long[column.size()];
+        int i = 0;
+        for (CharSequence text : column) {
+            values[i++] = parseLong(text, defaultValue);
+        }
+        return values;
+    }
+
+    /**
+     * Parses a column of doubles.
+     *
+     * @param column texts to parse
+     * @param defaultValue for null, blank or invalid texts
+     * @return parsed values, in the same order
+     * @see #parseDouble(CharSequence, double)
+     */
+    public static double[] parseDoubles(List<? extends CharSequence> column, double defaultValue) {
+        double[] values = new double[column.size()];
+        int i = 0;
+        for (CharSequence text : column) {
+            values[i++] = parseDouble(text, defaultValue);
+        }
+        return values;
+    }
+
+    private static int skipDigits(CharSequence text, int begin, int end, int radix) {
+        int i = begin;
+        while (i < end && Character.digit(text.charAt(i), radix) >= 0 && text.charAt(i) < 128) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean regionEquals(CharSequence text, int begin, int end, String expected) {
+        return end - begin == expected.length() && StringUtils.startsWith(text.subSequence(begin, end), expected);
+    }
+
+    /**
+     * Parses what the fast path can't, checking it first if not strict to avoid the cost of an exception.
+     */
+    private static double slowParse(CharSequence text, int from, int to, boolean strict, double defaultValue) {
+        if (!strict && !isDouble(text, from, to, ',')) {
+            return defaultValue;
+        }
+        return Double.parseDouble(StringUtils.replaceChars(text.subSequence(from, to).toString(), ',', '.'));
+    }
+
+}
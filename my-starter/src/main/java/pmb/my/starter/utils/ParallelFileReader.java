@@ -0,0 +1,303 @@
+package pmb.my.starter.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pmb.my.starter.exception.MinorException;
+
+/**
+ * Reads big text files in parallel: the file is memory-mapped, split into line-aligned chunks and each chunk is decoded and processed by a
+ * {@link ForkJoinPool}.
+ * <p>
+ * Lines are separated by {@code \n} or {@code \r\n}. Only charsets encoding {@code \n} as the single byte {@code 0x0A} are supported (ASCII
+ * compatible ones like {@link MyConstant#ANSI_CHARSET} or {@link StandardCharsets#UTF_8}). Single-byte charsets are decoded through a lookup table
+ * instead of a {@link CharsetDecoder}, their undefined bytes being replaced by {@code U+FFFD}.
+ *
+ * @see MyFileUtils#readFile(File, String, Consumer)
+ */
+public final class ParallelFileReader {
+
+    private static final Logger LOG = LogManager.getLogger(ParallelFileReader.class);
+
+    /**
+     * Default size of a chunk: 16 MB.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    private static final byte LF = '\n';
+    private static final byte CR = '\r';
+
+    private ParallelFileReader() {
+        throw new AssertionError("Must not be used");
+    }
+
+    /**
+     * Reads the given file in parallel with the common pool, giving each line to the consumer. Lines are consumed concurrently and in no particular
+     * order, so the consumer must be thread-safe.
+     *
+     * @param file to read
+     * @param charset encoding
+     * @param consumer called for each line
+     */
+    public static void forEachLine(File file, Charset charset, Consumer<String> consumer) {
+        forEachLine(file, charset, consumer, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Reads the given file in parallel, giving each line to the consumer. Lines are consumed concurrently and in no particular order, so the
+     * consumer must be thread-safe.
+     *
+     * @param file to read
+     * @param charset encoding
+     * @param consumer called for each line
+     * @param pool pool running the chunks
+     * @param chunkSize approximate size in bytes of a chunk
+     */
+    public static void forEachLine(File file, Charset charset, Consumer<String> consumer, ForkJoinPool pool, int chunkSize) {
+        mapChunks(file, charset, lines -> {
+            lines.forEach(consumer);
+            return null;
+        }, pool, chunkSize);
+    }
+
+    /**
+     * Reads the given file in parallel with the common pool, applying the mapper on the lines of each chunk.
+     *
+     * @param <R> result type of a chunk
+     * @param file to read
+     * @param charset encoding
+     * @param mapper processes the lines of a chunk, called concurrently
+     * @return mapper results, in file order
+     */
+    public static <R> List<R> mapChunks(File file, Charset charset, Function<List<String>, R> mapper) {
+        return mapChunks(file, charset, mapper, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Reads the given file in parallel, applying the mapper on the lines of each chunk. Only one chunk per worker is decoded in memory at a time.
+     *
+     * @param <R> result type of a chunk
+     * @param file to read
+     * @param charset encoding
+     * @param mapper processes the lines of a chunk, called concurrently
+     * @param pool pool running the chunks
+     * @param chunkSize approximate size in bytes of a chunk
+     * @return mapper results, in file order
+     */
+    public static <R> List<R> mapChunks(File file, Charset charset, Function<List<String>, R> mapper, ForkJoinPool pool, int chunkSize) {
+        LOG.debug("Start mapChunks");
+        if (chunkSize <= 0) {
+            throw new MinorException("Chunk size must be positive: " + chunkSize);
+        }
+        LineDecoder decoder = LineDecoder.of(charset);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long[] bounds = splitChunks(file, channel, chunkSize);
+            List<R> result = pool.invoke(new ChunkTask<>(channel, bounds, 0, bounds.length - 1, decoder, mapper));
+            LOG.debug("End mapChunks");
+            return result;
+        } catch (IOException e) {
+            throw new MinorException("Error when reading file: " + file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Computes chunks boundaries, each one except the first starting just after a line feed. A chunk can't be mapped if it exceeds
+     * {@link Integer#MAX_VALUE} bytes, which happens when the file has no line feed for that long.
+     *
+     * @return offsets, chunk {@code i} goes from {@code bounds[i]} to {@code bounds[i + 1]}
+     */
+    private static long[] splitChunks(File file, FileChannel channel, int chunkSize) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long start = 0;
+        while (size - start > chunkSize) {
+            long next = nextLineStart(channel, start + chunkSize, size, buffer);
+            if (next >= size) {
+                break;
+            }
+            bounds.add(next);
+            start = next;
+        }
+        bounds.add(size);
+        for (int i = 1; i < bounds.size(); i++) {
+            if (bounds.get(i) - bounds.get(i - 1) > Integer.MAX_VALUE) {
+                throw new MinorException("Chunk too big to be mapped in file: " + file.getAbsolutePath() + ", at offset: " + bounds.get(i - 1));
+            }
+        }
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static long nextLineStart(FileChannel channel, long from, long size, ByteBuffer buffer) throws IOException {
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == LF) {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Maps and decodes a range of chunks, splitting it in two while it contains more than one chunk.
+     */
+    private static final class ChunkTask<R>
+        extends RecursiveTask<List<R>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient FileChannel channel;
+        private final long[] bounds;
+        private final int from;
+        private final int to;
+        private final transient LineDecoder decoder;
+        private final transient Function<List<String>, R> mapper;
+
+        private ChunkTask(FileChannel channel, long[] bounds, int from, int to, LineDecoder decoder, Function<List<String>, R> mapper) {
+            this.channel = channel;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+            this.decoder = decoder;
+            this.mapper = mapper;
+        }
+
+        @Override
+        protected List<R> compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                ChunkTask<R> left = new ChunkTask<>(channel, bounds, from, middle, decoder, mapper);
+                ChunkTask<R> right = new ChunkTask<>(channel, bounds, middle, to, decoder, mapper);
+                right.fork();
+                List<R> result = new ArrayList<>(left.compute());
+                result.addAll(right.join());
+                return result;
+            }
+            List<R> result = new ArrayList<>(1);
+            long start = bounds[from];
+            long length = bounds[to] - start;
+            if (length > 0) {
+                try {
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+                    result.add(mapper.apply(decoder.decode(buffer)));
+                } catch (IOException e) {
+                    throw new MinorException("Error when mapping chunk at offset: " + start, e);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Splits a buffer into lines.
+     */
+    private abstract static class LineDecoder {
+
+        static LineDecoder of(Charset charset) {
+            ByteBuffer lineFeed = charset.encode("\n");
+            if (lineFeed.remaining() != 1 || lineFeed.get(0) != LF) {
+                throw new MinorException("Unsupported charset for parallel reading: " + charset);
+            }
+            return charset.newEncoder().maxBytesPerChar() == 1F ? new SingleByteDecoder(charset) : new MultiByteDecoder(charset);
+        }
+
+        List<String> decode(ByteBuffer buffer) {
+            List<String> lines = new ArrayList<>();
+            int start = buffer.position();
+            int limit = buffer.limit();
+            for (int i = start; i < limit; i++) {
+                if (buffer.get(i) == LF) {
+                    lines.add(decodeLine(buffer, start, i > start && buffer.get(i - 1) == CR ? i - 1 : i));
+                    start = i + 1;
+                }
+            }
+            if (start < limit) {
+                lines.add(decodeLine(buffer, start, buffer.get(limit - 1) == CR ? limit - 1 : limit));
+            }
+            return lines;
+        }
+
+        abstract String decodeLine(ByteBuffer buffer, int from, int to);
+    }
+
+    /**
+     * Decodes single-byte charsets with a 256 entries table.
+     */
+    private static final class SingleByteDecoder
+        extends LineDecoder {
+
+        private final char[] table = new char[256];
+
+        private SingleByteDecoder(Charset charset) {
+            CharsetDecoder decoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+            for (int i = 0; i < table.length; i++) {
+                try {
+                    CharBuffer decoded = decoder.reset().decode(ByteBuffer.wrap(new byte[] { (byte) i }));
+                    table[i] = decoded.length() == 1 ? decoded.get(0) : '\uFFFD';
+                } catch (CharacterCodingException e) {
+                    table[i] = '\uFFFD';
+                }
+            }
+        }
+
+        @Override
+        String decodeLine(ByteBuffer buffer, int from, int to) {
+            char[] chars = new char[to - from];
+            for (int i = from; i < to; i++) {
+                chars[i - from] = table[buffer.get(i) & 0xFF];
+            }
+            return new String(chars);
+        }
+    }
+
+    /**
+     * Decodes multi-byte charsets like UTF-8, one decoder per thread.
+     */
+    private static final class MultiByteDecoder
+        extends LineDecoder {
+
+        private final ThreadLocal<CharsetDecoder> decoders;
+
+        private MultiByteDecoder(Charset charset) {
+            decoders = ThreadLocal.withInitial(charset::newDecoder);
+        }
+
+        @Override
+        String decodeLine(ByteBuffer buffer, int from, int to) {
+            try {
+                return decoders.get().reset().decode(buffer.duplicate().position(from).limit(to)).toString();
+            } catch (CharacterCodingException e) {
+                throw new MinorException("Malformed input in line starting at chunk offset: " + from, e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package pmb.my.starter.utils;
+
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A property of {@link MyProperties} bound to its key, whose value is parsed only once each time properties change. Reading it doesn't allocate.
+ *
+ * @param <T> type of the parsed value
+ * @see MyProperties#get(String)
+ */
+public abstract class PropertyHandle<T> {
+
+    private static final Logger LOG = LogManager.getLogger(PropertyHandle.class);
+
+    private final String key;
+    private final T defaultValue;
+    private volatile Parsed<T> parsed;
+
+    /**
+     * Constructor.
+     *
+     * @param key id of the property
+     * @param defaultValue value used when the property is blank, missing or invalid
+     */
+    protected PropertyHandle(String key, T defaultValue) {
+        this.key = key;
+        this.defaultValue = defaultValue;
+    }
+
+    /**
+     * Converts the raw value of the property.
+     *
+     * @param value not blank raw value
+     * @return the converted value
+     * @throws RuntimeException if the value is invalid
+     */
+    protected abstract T parse(String value);
+
+    /**
+     * Gets the converted value, parsing it only if properties changed since the last call.
+     *
+     * @return the converted value or the default one
+     */
+    protected final T value() {
+        Map<String, String> snapshot = MyProperties.snapshot();
+        Parsed<T> current = parsed;
+        if (current == null || current.source != snapshot) {
+            current = new Parsed<>(snapshot, parseOrDefault(snapshot.get(key)));
+            parsed = current;
+        }
+        return current.value;
+    }
+
+    private T parseOrDefault(String value) {
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            return parse(value.trim());
+        } catch (RuntimeException e) {
+            LOG.warn("Invalid value '{}' for property {}, using default value: {}", value, key, defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * @return id of the property
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return value used when the property is blank, missing or invalid
+     */
+    public T getDefaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * A value parsed from a snapshot of the properties.
+     */
+    private static final class Parsed<T> {
+
+        private final Map<String, String> source;
+        private final T value;
+
+        private Parsed(Map<String, String> source, T value) {
+            this.source = source;
+            this.value = value;
+        }
+    }
+
+}
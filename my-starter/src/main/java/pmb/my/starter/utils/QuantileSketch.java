@@ -0,0 +1,229 @@
+package pmb.my.starter.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Approximate quantiles of a data set too large to be kept in memory, with a KLL sketch: values are stored in levels of compactors, each level
+ * holding values of weight twice the previous one. When a level is full, it's sorted and one value out of two is promoted to the next level.
+ * <p>
+ * Memory stays around {@code 3 * k} values whatever the number of accepted values, and the rank error is about {@code 1.7 / k}. Sketches of
+ * different partitions can be merged. Not thread-safe.
+ *
+ * @see MyStatistics
+ */
+public final class QuantileSketch
+    implements DoubleConsumer {
+
+    /**
+     * Default accuracy parameter, about 1% rank error.
+     */
+    public static final int DEFAULT_K = 200;
+
+    private static final int MIN_CAPACITY = 8;
+    private static final double CAPACITY_DECAY = 2D / 3D;
+
+    private final int k;
+    private final List<Compactor> levels = new ArrayList<>();
+    /**
+     * Capacity of each level, computed when a level is added.
+     */
+    private int[] capacities;
+    private int totalCapacity;
+    private int retained;
+    private long count;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    /**
+     * Constructor with default accuracy.
+     */
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param k accuracy parameter, the bigger the more accurate and the more memory used
+     */
+    public QuantileSketch(int k) {
+        if (k < MIN_CAPACITY) {
+            throw new IllegalArgumentException("k must be at least " + MIN_CAPACITY + ": " + k);
+        }
+        this.k = k;
+        addLevel();
+    }
+
+    @Override
+    public void accept(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        min = count == 0 ? value : Math.min(min, value);
+        max = count == 0 ? value : Math.max(max, value);
+        count++;
+        levels.get(0).add(value);
+        if (++retained >= totalCapacity) {
+            compress();
+        }
+    }
+
+    /**
+     * Adds the values of another sketch to this one.
+     *
+     * @param other sketch to merge, unchanged
+     * @return this sketch
+     */
+    public QuantileSketch merge(QuantileSketch other) {
+        if (other.count == 0) {
+            return this;
+        }
+        while (levels.size() < other.levels.size()) {
+            addLevel();
+        }
+        for (int h = 0; h < other.levels.size(); h++) {
+            Compactor from = other.levels.get(h);
+            for (int i = 0; i < from.size; i++) {
+                levels.get(h).add(from.items[i]);
+            }
+            retained += from.size;
+        }
+        min = count == 0 ? other.min : Math.min(min, other.min);
+        max = count == 0 ? other.max : Math.max(max, other.max);
+        count += other.count;
+        compress();
+        return this;
+    }
+
+    /**
+     * Estimates a quantile.
+     *
+     * @param fraction from 0 (min) to 1 (max), 0.5 for the median
+     * @return the estimated value, {@link Double#NaN} if empty
+     */
+    public double quantile(double fraction) {
+        if (fraction < 0D || fraction > 1D) {
+            throw new IllegalArgumentException("Fraction must be between 0 and 1: " + fraction);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        } else if (fraction == 0D) {
+            return min;
+        } else if (fraction == 1D) {
+            return max;
+        }
+        double[] values = new double[retained];
+        long[] weights = new long[retained];
+        // Each retained value stands for 2^level accepted values
+        int n = 0;
+        for (int h = 0; h < levels.size(); h++) {
+            Compactor level = levels.get(h);
+            for (int i = 0; i < level.size; i++) {
+                values[n] = level.items[i];
+                weights[n++] = 1L << h;
+            }
+        }
+        Integer[] order = new Integer[retained];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+        long total = Arrays.stream(weights).sum();
+        double target = fraction * total;
+        long cumulative = 0;
+        for (Integer index : order) {
+            cumulative += weights[index];
+            if (cumulative >= target) {
+                return values[index];
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return number of accepted values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return smallest value, {@link Double#NaN} if empty
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * @return largest value, {@link Double#NaN} if empty
+     */
+    public double getMax() {
+        return max;
+    }
+
+    private void addLevel() {
+        levels.add(new Compactor());
+        capacities = new int[levels.size()];
+        totalCapacity = 0;
+        for (int h = 0; h < capacities.length; h++) {
+            int depth = capacities.length - h - 1;
+            capacities[h] = Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+            totalCapacity += capacities[h];
+        }
+    }
+
+    /**
+     * Compacts the lowest full levels until the sketch holds fewer values than its capacity.
+     */
+    private void compress() {
+        while (retained >= totalCapacity) {
+            // Some level is full since the total capacity is reached
+            int h = 0;
+            while (levels.get(h).size < capacities[h]) {
+                h++;
+            }
+            if (h == levels.size() - 1) {
+                addLevel();
+            }
+            Compactor level = levels.get(h);
+            Compactor next = levels.get(h + 1);
+            int before = level.size + next.size;
+            level.compactInto(next);
+            retained -= before - level.size - next.size;
+        }
+    }
+
+    /**
+     * Values of the same weight.
+     */
+    private static final class Compactor {
+
+        private double[] items = new double[MIN_CAPACITY];
+        private int size;
+
+        private void add(double value) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = value;
+        }
+
+        /**
+         * Sorts values and promotes one out of two to the next level, randomly the odd or the even ones. With an odd size, the largest value stays.
+         */
+        private void compactInto(Compactor next) {
+            Arrays.sort(items, 0, size);
+            int pairs = size / 2 * 2;
+            for (int i = ThreadLocalRandom.current().nextInt(2); i < pairs; i += 2) {
+                next.add(items[i]);
+            }
+            if (pairs < size) {
+                items[0] = items[size - 1];
+            }
+            size -= pairs;
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+package pmb.my.starter.utils;
+
+import java.util.function.DoubleConsumer;
+
+/**
+ * Computes count, mean, variance, min and max of {@code double} values in a single pass with Welford's algorithm, numerically stable and without
+ * keeping the values.
+ * <p>
+ * Accumulators of different partitions can be combined, for instance with {@code stream.parallel().collect(StatsAccumulator::new,
+ * StatsAccumulator::accept, StatsAccumulator::combine)}. Not thread-safe.
+ *
+ * @see MyStatistics
+ */
+public final class StatsAccumulator
+    implements DoubleConsumer {
+
+    private long count;
+    private double mean;
+    private double squaredDeviations;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Constructor of an empty accumulator.
+     */
+    public StatsAccumulator() {
+        // Nothing accumulated yet
+    }
+
+    @Override
+    public void accept(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        squaredDeviations += delta * (value - mean);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds the values accumulated by another accumulator to this one.
+     *
+     * @param other accumulator to merge, unchanged
+     * @return this accumulator
+     */
+    public StatsAccumulator combine(StatsAccumulator other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            squaredDeviations = other.squaredDeviations;
+        } else {
+            long total = count + other.count;
+            double delta = other.mean - mean;
+            mean += delta * other.count / total;
+            squaredDeviations += other.squaredDeviations + delta * delta * count * other.count / total;
+            count = total;
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    /**
+     * @return number of values
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return arithmetic mean, 0 if empty
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return population variance, 0 if empty
+     */
+    public double getVariance() {
+        return count == 0 ? 0D : squaredDeviations / count;
+    }
+
+    /**
+     * @return sample variance, with Bessel's correction, 0 if less than 2 values
+     */
+    public double getSampleVariance() {
+        return count < 2 ? 0D : squaredDeviations / (count - 1);
+    }
+
+    /**
+     * @return population standard deviation, like {@link VariousUtils#calculateSD(java.util.List, Double, long)}
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * @return smallest value, {@link Double#POSITIVE_INFINITY} if empty
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * @return largest value, {@link Double#NEGATIVE_INFINITY} if empty
+     */
+    public double getMax() {
+        return max;
+    }
+
+}
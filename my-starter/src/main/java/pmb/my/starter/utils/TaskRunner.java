@@ -0,0 +1,341 @@
+package pmb.my.starter.utils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pmb.my.starter.exception.MajorException;
+
+/**
+ * Runs groups of tasks concurrently, for I/O bound work like reading or zipping files.
+ * <p>
+ * Tasks run on virtual threads when the JVM supports them, otherwise on a pool of platform threads, at most {@code maxConcurrency} at a time in
+ * both cases. Each call is structured: it returns only once all its tasks have ended, none keeps running in the background. If a task fails and
+ * fail fast is enabled, the others are interrupted and the ones not started yet are skipped. Failures are reported as a single
+ * {@link MajorException}, the other failures being suppressed exceptions of it.
+ * <p>
+ * A runner can be used by several threads at once and must be closed after use.
+ */
+public final class TaskRunner
+    implements AutoCloseable {
+
+    private static final Logger LOG = LogManager.getLogger(TaskRunner.class);
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final Duration taskTimeout;
+    private final boolean failFast;
+    private final boolean virtual;
+
+    /**
+     * Constructor of a fail fast runner, without timeout.
+     *
+     * @param maxConcurrency maximum number of tasks running at the same time
+     */
+    public TaskRunner(int maxConcurrency) {
+        this(maxConcurrency, null, true);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maxConcurrency maximum number of tasks running at the same time
+     * @param taskTimeout maximum duration of each task, after which it's interrupted and fails, null for none
+     * @param failFast if true, the first failure cancels the other tasks, otherwise all tasks run and all failures are reported
+     */
+    public TaskRunner(int maxConcurrency, Duration taskTimeout, boolean failFast) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be positive: " + maxConcurrency);
+        }
+        this.taskTimeout = taskTimeout;
+        this.failFast = failFast;
+        ExecutorService virtualExecutor = newVirtualThreadExecutor();
+        virtual = virtualExecutor != null;
+        if (virtual) {
+            executor = virtualExecutor;
+            permits = new Semaphore(maxConcurrency);
+        } else {
+            executor = Executors.newFixedThreadPool(maxConcurrency, daemonThreads("my-task-runner-"));
+            permits = null;
+        }
+    }
+
+    /**
+     * Creates an executor with a virtual thread per task, through reflection to stay compatible with JVMs without virtual threads.
+     *
+     * @return the executor, null if virtual threads aren't available
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOG.debug("Virtual threads not available, using platform threads", e);
+            return null;
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + THREAD_COUNT.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * @return true if tasks run on virtual threads
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Runs the given tasks and waits for all of them to end.
+     *
+     * @param tasks to run
+     * @throws MajorException if a task failed, timed out, or if interrupted while waiting
+     */
+    public void runAll(Collection<? extends RunnableThrowing> tasks) throws MajorException {
+        List<CallableThrowing<Void>> callables = new ArrayList<>(tasks.size());
+        tasks.forEach(task -> callables.add(() -> {
+            task.run();
+            return null;
+        }));
+        callAll(callables);
+    }
+
+    /**
+     * Runs the given tasks and waits for all of them to end.
+     *
+     * @param <T> type of the results
+     * @param tasks to run
+     * @return results of the tasks, in the same order
+     * @throws MajorException if a task failed, timed out, or if interrupted while waiting
+     */
+    public <T> List<T> callAll(Collection<? extends CallableThrowing<T>> tasks) throws MajorException {
+        Batch<T> batch = new Batch<>(tasks.size());
+        CompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+        int index = 0;
+        for (CallableThrowing<T> task : tasks) {
+            int position = index++;
+            completion.submit(() -> batch.run(position, task), null);
+        }
+        boolean interrupted = false;
+        for (int done = 0; done < index; done++) {
+            Future<Void> future = null;
+            while (future == null) {
+                try {
+                    future = completion.take();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    batch.abort();
+                }
+            }
+            try {
+                future.get();
+            } catch (ExecutionException | InterruptedException e) {
+                // Tasks catch their own exceptions, this is unexpected
+                batch.fail(e);
+            }
+            if (failFast && batch.hasFailed()) {
+                batch.abort();
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+            MajorException exception = new MajorException("Interrupted while waiting for tasks");
+            batch.failures.forEach(exception::addSuppressed);
+            throw exception;
+        }
+        batch.throwFailures();
+        return batch.results;
+    }
+
+    /**
+     * Stops the runner, running calls are not interrupted.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * State of the tasks of a single call.
+     */
+    private final class Batch<T> {
+
+        private final List<T> results;
+        private final List<Exception> failures = new ArrayList<>();
+        /**
+         * Running tasks.
+         */
+        private final Set<Execution> running = ConcurrentHashMap.newKeySet();
+        private volatile boolean aborted;
+
+        private Batch(int size) {
+            results = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                results.add(null);
+            }
+        }
+
+        private void run(int position, CallableThrowing<T> task) {
+            if (aborted) {
+                return;
+            }
+            boolean acquired = false;
+            Execution execution = new Execution(Thread.currentThread());
+            running.add(execution);
+            ScheduledFuture<?> timer = null;
+            try {
+                if (permits != null) {
+                    permits.acquire();
+                    acquired = true;
+                }
+                if (aborted) {
+                    return;
+                }
+                if (taskTimeout != null) {
+                    timer = Timer.INSTANCE.schedule(() -> execution.interrupt(true), taskTimeout.toNanos(), TimeUnit.NANOSECONDS);
+                }
+                T result;
+                try {
+                    result = task.call();
+                } finally {
+                    execution.finish();
+                }
+                if (execution.timedOut) {
+                    fail(new MajorException(timedOut(position)));
+                } else {
+                    synchronized (this) {
+                        results.set(position, result);
+                    }
+                }
+            } catch (Exception e) {
+                if (execution.timedOut) {
+                    fail(new MajorException(timedOut(position), e));
+                } else if (!aborted) {
+                    fail(e);
+                }
+            } finally {
+                if (timer != null) {
+                    timer.cancel(false);
+                }
+                running.remove(execution);
+                if (acquired) {
+                    permits.release();
+                }
+                // No interruption can happen after this, a pool thread is reused
+                execution.finish();
+            }
+        }
+
+        private String timedOut(int position) {
+            return "Task " + position + " timed out after " + taskTimeout;
+        }
+
+        private synchronized boolean hasFailed() {
+            return !failures.isEmpty();
+        }
+
+        private synchronized void fail(Exception e) {
+            failures.add(e);
+        }
+
+        private void abort() {
+            aborted = true;
+            running.forEach(execution -> execution.interrupt(false));
+        }
+
+        private synchronized void throwFailures() throws MajorException {
+            if (failures.isEmpty()) {
+                return;
+            }
+            if (failures.size() == 1 && failures.get(0) instanceof MajorException) {
+                throw (MajorException) failures.get(0);
+            }
+            MajorException exception = new MajorException(failures.size() + " task(s) failed", failures.get(0));
+            failures.stream().skip(1).forEach(exception::addSuppressed);
+            throw exception;
+        }
+    }
+
+    /**
+     * Execution of a task by a thread, which may only be interrupted until the task finishes.
+     */
+    private static final class Execution {
+
+        private static final int RUNNING = 0;
+        private static final int INTERRUPTING = 1;
+        private static final int FINISHED = 2;
+
+        private final Thread thread;
+        private final AtomicInteger state = new AtomicInteger(RUNNING);
+        private volatile boolean timedOut;
+
+        private Execution(Thread thread) {
+            this.thread = thread;
+        }
+
+        /**
+         * Interrupts the thread if the task is still running.
+         *
+         * @param timeout true if the task ran too long
+         */
+        private void interrupt(boolean timeout) {
+            if (state.compareAndSet(RUNNING, INTERRUPTING)) {
+                timedOut |= timeout;
+                thread.interrupt();
+                state.set(RUNNING);
+            }
+        }
+
+        /**
+         * Marks the task as finished, waiting for an interruption in progress, then clears the interrupted status. Called by the running thread.
+         */
+        private void finish() {
+            int current;
+            while ((current = state.get()) != FINISHED && !state.compareAndSet(RUNNING, FINISHED)) {
+                Thread.onSpinWait();
+            }
+            if (current != FINISHED) {
+                Thread.interrupted();
+            }
+        }
+    }
+
+    /**
+     * Single thread interrupting tasks running too long, created on first use. Timeouts of finished tasks are removed from its queue right away.
+     */
+    private static final class Timer {
+
+        private static final ScheduledExecutorService INSTANCE = newTimer();
+
+        private static ScheduledExecutorService newTimer() {
+            ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, daemonThreads("my-task-runner-timer-"));
+            timer.setRemoveOnCancelPolicy(true);
+            return timer;
+        }
+    }
+
+}
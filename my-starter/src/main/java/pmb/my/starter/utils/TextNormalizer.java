@@ -0,0 +1,123 @@
+package pmb.my.starter.utils;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Normalizes texts to compare them, removing punctuation and whitespaces and lowering the case in a single pass.
+ * <p>
+ * Removed characters are the ones matching {@link MyConstant#PATTERN_PUNCTUATION}, all ASCII, looked up in a table. Other characters are kept, and
+ * lowered like {@link String#toLowerCase()} does.
+ *
+ * @see VariousUtils#removePunctuation(String)
+ */
+public final class TextNormalizer {
+
+    private static final int ASCII = 128;
+    /**
+     * Languages whose lower case of ASCII letters isn't ASCII, like the dotless i in turkish.
+     */
+    private static final Set<String> SPECIAL_CASING_LANGUAGES = Set.of("tr", "az", "lt");
+    private static final boolean[] REMOVED = new boolean[ASCII];
+
+    static {
+        for (char c = 0; c < ASCII; c++) {
+            REMOVED[c] = MyConstant.PATTERN_PUNCTUATION.matcher(String.valueOf(c)).matches();
+        }
+    }
+
+    private TextNormalizer() {
+        throw new AssertionError("Must not be used");
+    }
+
+    /**
+     * Removes all punctuation and whitespaces and lowers the case of the given text. The trimmed text is returned if it's only made of punctuation.
+     *
+     * @param text to normalize
+     * @return a string with no punctuation, empty if the text is blank
+     */
+    public static String removePunctuation(String text) {
+        if (StringUtils.isBlank(text)) {
+            return "";
+        }
+        // Same bounds as String#trim, control characters too are stripped at both ends
+        int begin = 0;
+        int end = text.length();
+        while (begin < end && text.charAt(begin) <= ' ') {
+            begin++;
+        }
+        while (end > begin && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        boolean asciiCasing = !SPECIAL_CASING_LANGUAGES.contains(Locale.getDefault().getLanguage());
+        boolean nonAscii = false;
+        char[] result = new char[end - begin];
+        int size = 0;
+        for (int i = begin; i < end; i++) {
+            char c = text.charAt(i);
+            if (c >= ASCII) {
+                nonAscii = true;
+                result[size++] = c;
+            } else if (!REMOVED[c]) {
+                result[size++] = asciiCasing && c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+            }
+        }
+        String res = new String(result, 0, size);
+        if (nonAscii || !asciiCasing) {
+            res = res.toLowerCase();
+        }
+        return StringUtils.isBlank(res) ? text.substring(begin, end) : res;
+    }
+
+    /**
+     * Normalizes each of the given texts.
+     *
+     * @param texts to normalize
+     * @return normalized texts, in the same order
+     * @see #removePunctuation(String)
+     */
+    public static List<String> removePunctuation(Collection<String> texts) {
+        return texts.stream().map(TextNormalizer::removePunctuation).toList();
+    }
+
+    /**
+     * Builds a normalizer keeping the last results, for inputs often repeated. The returned function is thread-safe.
+     *
+     * @param maxSize maximum number of results kept, least recently used ones are dropped first
+     * @return a caching {@link #removePunctuation(String)}
+     */
+    public static UnaryOperator<String> cached(int maxSize) {
+        Map<String, String> cache = new LinkedHashMap<>(16, 0.75F, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxSize;
+            }
+        };
+        return text -> {
+            if (text == null) {
+                return "";
+            }
+            synchronized (cache) {
+                String cached = cache.get(text);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+            String normalized = removePunctuation(text);
+            synchronized (cache) {
+                cache.put(text, normalized);
+            }
+            return normalized;
+        };
+    }
+
+}
@@ -0,0 +1,442 @@
+package pmb.my.starter.utils;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.UnmappableCharacterException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Converts bytes between {@link MyConstant#ANSI_CHARSET Cp1252} and UTF-8 in a single pass, without decoding them into strings.
+ * <p>
+ * Cp1252 characters are looked up in 256 entries tables and runs of ASCII bytes, identical in both charsets, are copied in bulk. Conversions are
+ * strict: the 5 bytes undefined in Cp1252, invalid UTF-8 and characters missing in Cp1252 raise a {@link CharacterCodingException}. Files are read
+ * through memory mapping.
+ */
+public final class Transcoder {
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final long MAP_SIZE = 64L * 1024 * 1024;
+    private static final long ASCII_MASK = 0x8080808080808080L;
+    private static final int MAX_UTF8_BYTES = 3;
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /**
+     * UTF-8 encoding of each Cp1252 byte: length in the low byte, then the encoded bytes. 0 if undefined.
+     */
+    private static final int[] CP1252_TO_UTF8 = new int[256];
+    /**
+     * Cp1252 byte of each character below 256, -1 if none.
+     */
+    private static final short[] LATIN_TO_CP1252 = new short[256];
+    /**
+     * Characters above 255 existing in Cp1252, sorted, and their byte.
+     */
+    private static final char[] EXTRA_CHARS;
+    private static final byte[] EXTRA_BYTES;
+
+    static {
+        CharsetDecoder decoder = MyConstant.ANSI_CHARSET.newDecoder().onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        Arrays.fill(LATIN_TO_CP1252, (short) -1);
+        // Character in the high bits, byte in the low ones, to sort them together
+        int[] extras = new int[256];
+        int extraCount = 0;
+        for (int i = 0; i < 256; i++) {
+            char c = decode(decoder, (byte) i);
+            if (c == '\uFFFD') {
+                continue;
+            }
+            if (c < 0x80) {
+                CP1252_TO_UTF8[i] = 1 | c << 8;
+            } else if (c < 0x800) {
+                CP1252_TO_UTF8[i] = 2 | (0xC0 | c >> 6) << 8 | (0x80 | c & 0x3F) << 16;
+            } else {
+                CP1252_TO_UTF8[i] = 3 | (0xE0 | c >> 12) << 8 | (0x80 | c >> 6 & 0x3F) << 16 | (0x80 | c & 0x3F) << 24;
+            }
+            if (c < 256) {
+                LATIN_TO_CP1252[c] = (short) i;
+            } else {
+                extras[extraCount++] = c << 8 | i;
+            }
+        }
+        Arrays.sort(extras, 0, extraCount);
+        EXTRA_CHARS = new char[extraCount];
+        EXTRA_BYTES = new byte[extraCount];
+        for (int i = 0; i < extraCount; i++) {
+            EXTRA_CHARS[i] = (char) (extras[i] >>> 8);
+            EXTRA_BYTES[i] = (byte) extras[i];
+        }
+    }
+
+    private Transcoder() {
+        throw new AssertionError("Must not be used");
+    }
+
+    private static char decode(CharsetDecoder decoder, byte b) {
+        try {
+            CharBuffer decoded = decoder.reset().decode(ByteBuffer.wrap(new byte[] { b }));
+            return decoded.length() == 1 ? decoded.get(0) : '\uFFFD';
+        } catch (CharacterCodingException e) {
+            return '\uFFFD';
+        }
+    }
+
+    /**
+     * Converts a Cp1252 file to UTF-8.
+     *
+     * @param source Cp1252 file to read
+     * @param target UTF-8 file to write, created or truncated
+     * @return number of bytes written
+     * @throws IOException if an I/O error occurs or if the source has undefined bytes
+     */
+    public static long cp1252ToUtf8(Path source, Path target) throws IOException {
+        return transcode(source, target, MAX_UTF8_BYTES, Transcoder::toUtf8);
+    }
+
+    /**
+     * Converts an UTF-8 file to Cp1252.
+     *
+     * @param source UTF-8 file to read
+     * @param target Cp1252 file to write, created or truncated
+     * @return number of bytes written
+     * @throws IOException if an I/O error occurs, if the source isn't valid UTF-8 or has characters missing in Cp1252
+     */
+    public static long utf8ToCp1252(Path source, Path target) throws IOException {
+        return transcode(source, target, 1, Transcoder::toCp1252);
+    }
+
+    /**
+     * Converts Cp1252 bytes to UTF-8 from a channel to another, until the end of the input.
+     *
+     * @param in Cp1252 bytes to read
+     * @param out where UTF-8 bytes are written
+     * @return number of bytes written
+     * @throws IOException if an I/O error occurs or if the input has undefined bytes
+     */
+    public static long cp1252ToUtf8(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        return transcode(in, out, Transcoder::cp1252ToUtf8);
+    }
+
+    /**
+     * Converts UTF-8 bytes to Cp1252 from a channel to another, until the end of the input.
+     *
+     * @param in UTF-8 bytes to read
+     * @param out where Cp1252 bytes are written
+     * @return number of bytes written
+     * @throws IOException if an I/O error occurs, if the input isn't valid UTF-8 or has characters missing in Cp1252
+     */
+    public static long utf8ToCp1252(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        return transcode(in, out, Transcoder::utf8ToCp1252);
+    }
+
+    /**
+     * Converts Cp1252 bytes to UTF-8, as many as the output can hold.
+     *
+     * @param src Cp1252 bytes, its position is moved after the converted ones
+     * @param dst where UTF-8 bytes are put
+     * @throws CharacterCodingException if an undefined byte is found, the source is then positioned on it
+     */
+    public static void cp1252ToUtf8(ByteBuffer src, ByteBuffer dst) throws CharacterCodingException {
+        convert(src, dst, MAX_UTF8_BYTES, Transcoder::toUtf8, null);
+    }
+
+    /**
+     * Converts UTF-8 bytes to Cp1252, as many as the output can hold. An incomplete sequence at the end of the source is left to be completed.
+     *
+     * @param src UTF-8 bytes, its position is moved after the converted ones
+     * @param dst where Cp1252 bytes are put
+     * @throws CharacterCodingException if an invalid sequence or a character missing in Cp1252 is found, the source is then positioned on it
+     */
+    public static void utf8ToCp1252(ByteBuffer src, ByteBuffer dst) throws CharacterCodingException {
+        convert(src, dst, 1, Transcoder::toCp1252, null);
+    }
+
+    /**
+     * Runs a conversion on the arrays of the given buffers, or through temporary arrays for direct buffers like mapped files.
+     *
+     * @param expansion maximum number of output bytes for an input byte
+     * @param scratch temporary arrays, allocated for this call if null
+     */
+    private static void convert(ByteBuffer src, ByteBuffer dst, int expansion, ArrayConversion conversion, Scratch scratch)
+            throws CharacterCodingException {
+        if (src.hasArray() && dst.hasArray()) {
+            Cursor cursor = new Cursor(src.array(), src.arrayOffset() + src.position(), src.arrayOffset() + src.limit(), dst.array(),
+                    dst.arrayOffset() + dst.position(), dst.arrayOffset() + dst.limit());
+            try {
+                conversion.convert(cursor);
+            } finally {
+                src.position(cursor.i - src.arrayOffset());
+                dst.position(cursor.d - dst.arrayOffset());
+            }
+            return;
+        }
+        byte[] in = scratch != null ? scratch.in : new byte[Math.min(src.remaining(), BUFFER_SIZE)];
+        byte[] out = scratch != null ? scratch.out : new byte[Math.min(dst.remaining(), in.length * expansion)];
+        boolean complete = true;
+        while (complete && src.hasRemaining() && dst.hasRemaining()) {
+            int length = Math.min(src.remaining(), in.length);
+            src.get(src.position(), in, 0, length);
+            Cursor cursor = new Cursor(in, 0, length, out, 0, Math.min(dst.remaining(), out.length));
+            try {
+                conversion.convert(cursor);
+            } finally {
+                src.position(src.position() + cursor.i);
+                dst.put(out, 0, cursor.d);
+            }
+            // Stopped by a full output or an incomplete sequence
+            complete = cursor.i == length;
+        }
+    }
+
+    private static void toUtf8(Cursor cursor) throws CharacterCodingException {
+        byte[] src = cursor.src;
+        byte[] dst = cursor.dst;
+        int i = cursor.i;
+        int d = cursor.d;
+        try {
+            while (i < cursor.limit) {
+                int b = src[i];
+                if (b >= 0) {
+                    if (d == cursor.dstLimit) {
+                        break;
+                    }
+                    int ascii = asciiRunEnd(src, i, Math.min(cursor.limit, i + cursor.dstLimit - d));
+                    d = copy(src, i, dst, d, ascii - i);
+                    i = ascii;
+                    continue;
+                }
+                int encoded = CP1252_TO_UTF8[b & 0xFF];
+                int length = encoded & 0xFF;
+                if (length == 0) {
+                    throw new UnmappableCharacterException(1);
+                }
+                if (cursor.dstLimit - d < length) {
+                    break;
+                }
+                dst[d++] = (byte) (encoded >>> 8);
+                dst[d++] = (byte) (encoded >>> 16);
+                if (length == MAX_UTF8_BYTES) {
+                    dst[d++] = (byte) (encoded >>> 24);
+                }
+                i++;
+            }
+        } finally {
+            cursor.i = i;
+            cursor.d = d;
+        }
+    }
+
+    private static void toCp1252(Cursor cursor) throws CharacterCodingException {
+        byte[] src = cursor.src;
+        byte[] dst = cursor.dst;
+        int i = cursor.i;
+        int d = cursor.d;
+        try {
+            while (i < cursor.limit && d < cursor.dstLimit) {
+                int b = src[i];
+                if (b >= 0) {
+                    int ascii = asciiRunEnd(src, i, Math.min(cursor.limit, i + cursor.dstLimit - d));
+                    d = copy(src, i, dst, d, ascii - i);
+                    i = ascii;
+                    continue;
+                }
+                b &= 0xFF;
+                int length = b < 0xC2 ? 0 : b < 0xE0 ? 2 : b < 0xF0 ? 3 : b < 0xF5 ? 4 : 0;
+                if (length == 0) {
+                    throw new MalformedInputException(1);
+                } else if (cursor.limit - i < length) {
+                    break;
+                }
+                int c = b & (0xFF >> (length + 1));
+                for (int j = 1; j < length; j++) {
+                    int next = src[i + j];
+                    if ((next & 0xC0) != 0x80) {
+                        throw new MalformedInputException(j);
+                    }
+                    c = c << 6 | next & 0x3F;
+                }
+                if (length == 3 && (c < 0x800 || c >= 0xD800 && c <= 0xDFFF) || length == 4 && (c < 0x10000 || c > 0x10FFFF)) {
+                    throw new MalformedInputException(length);
+                }
+                int encoded = encodeCp1252(c);
+                if (encoded < 0) {
+                    throw new UnmappableCharacterException(length);
+                }
+                dst[d++] = (byte) encoded;
+                i += length;
+            }
+        } finally {
+            cursor.i = i;
+            cursor.d = d;
+        }
+    }
+
+    private static int encodeCp1252(int c) {
+        if (c < 256) {
+            return LATIN_TO_CP1252[c];
+        }
+        int index = c > Character.MAX_VALUE ? -1 : Arrays.binarySearch(EXTRA_CHARS, (char) c);
+        return index < 0 ? -1 : EXTRA_BYTES[index] & 0xFF;
+    }
+
+    /**
+     * Finds the end of the run of ASCII bytes starting at the given index, which must be ASCII and before the end, checking 8 bytes at once.
+     */
+    private static int asciiRunEnd(byte[] src, int from, int to) {
+        int i = from + 1;
+        while (i + Long.BYTES <= to && ((long) LONGS.get(src, i) & ASCII_MASK) == 0) {
+            i += Long.BYTES;
+        }
+        while (i < to && src[i] >= 0) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Copies ASCII bytes, in bulk only for long runs.
+     *
+     * @return position in the output after the copied bytes
+     */
+    private static int copy(byte[] src, int from, byte[] dst, int to, int length) {
+        if (length > Long.BYTES) {
+            System.arraycopy(src, from, dst, to, length);
+            return to + length;
+        }
+        int d = to;
+        for (int i = from; i < from + length; i++) {
+            dst[d++] = src[i];
+        }
+        return d;
+    }
+
+    private static long transcode(ReadableByteChannel in, WritableByteChannel out, Conversion conversion) throws IOException {
+        ByteBuffer src = ByteBuffer.allocate(BUFFER_SIZE);
+        ByteBuffer dst = ByteBuffer.allocate(BUFFER_SIZE * MAX_UTF8_BYTES);
+        long written = 0;
+        boolean end = false;
+        while (!end) {
+            end = in.read(src) < 0;
+            src.flip();
+            // Converts until all fits in the output or only an incomplete sequence remains
+            int before = -1;
+            while (src.hasRemaining() && src.position() > before) {
+                before = src.position();
+                conversion.convert(src, dst);
+                written += flush(dst, out);
+            }
+            if (end && src.hasRemaining()) {
+                throw new MalformedInputException(src.remaining());
+            }
+            src.compact();
+        }
+        return written;
+    }
+
+    /**
+     * @param expansion maximum number of output bytes for an input byte
+     */
+    private static long transcode(Path source, Path target, int expansion, ArrayConversion conversion) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer dst = ByteBuffer.allocate(BUFFER_SIZE * MAX_UTF8_BYTES);
+            // Mapped windows are direct buffers, converted through these arrays
+            Scratch scratch = new Scratch(expansion);
+            long size = in.size();
+            long offset = 0;
+            long written = 0;
+            while (offset < size) {
+                ByteBuffer src = in.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(MAP_SIZE, size - offset));
+                int before = -1;
+                while (src.position() > before) {
+                    before = src.position();
+                    convert(src, dst, expansion, conversion, scratch);
+                    written += flush(dst, out);
+                }
+                if (src.position() == 0 || offset + src.limit() == size && src.hasRemaining()) {
+                    // An incomplete sequence at the end of the file
+                    throw new MalformedInputException(src.remaining());
+                }
+                // A sequence cut by the end of the mapping is read again with the next one
+                offset += src.position();
+            }
+            return written;
+        }
+    }
+
+    private static long flush(ByteBuffer dst, WritableByteChannel out) throws IOException {
+        dst.flip();
+        long written = dst.remaining();
+        while (dst.hasRemaining()) {
+            out.write(dst);
+        }
+        dst.clear();
+        return written;
+    }
+
+    @FunctionalInterface
+    private interface Conversion {
+
+        void convert(ByteBuffer src, ByteBuffer dst) throws CharacterCodingException;
+    }
+
+    @FunctionalInterface
+    private interface ArrayConversion {
+
+        void convert(Cursor cursor) throws CharacterCodingException;
+    }
+
+    /**
+     * Temporary arrays converting direct buffers, reused across calls of a single transcoding.
+     */
+    private static final class Scratch {
+
+        private final byte[] in;
+        private final byte[] out;
+
+        /**
+         * @param expansion maximum number of output bytes for an input byte
+         */
+        private Scratch(int expansion) {
+            in = new byte[BUFFER_SIZE];
+            out = new byte[BUFFER_SIZE * expansion];
+        }
+    }
+
+    /**
+     * Positions in the input and output arrays, left on the failing input if the conversion throws.
+     */
+    private static final class Cursor {
+
+        private final byte[] src;
+        private final int limit;
+        private final byte[] dst;
+        private final int dstLimit;
+        private int i;
+        private int d;
+
+        private Cursor(byte[] src, int i, int limit, byte[] dst, int d, int dstLimit) {
+            this.src = src;
+            this.i = i;
+            this.limit = limit;
+            this.dst = dst;
+            this.d = d;
+            this.dstLimit = dstLimit;
+        }
+    }
+
+}
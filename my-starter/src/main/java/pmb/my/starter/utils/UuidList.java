@@ -0,0 +1,262 @@
+package pmb.my.starter.utils;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+/**
+ * List of uuids stored as two longs each, instead of strings.
+ * <p>
+ * It can be converted from and to the comma separated format of {@link VariousUtils#uuidsToString(List)}, uuids being written as 32 lowercase
+ * hexadecimal characters, and to a compact binary format of 16 bytes per uuid, most significant bits first. Not thread-safe.
+ */
+public final class UuidList
+    implements Iterable<UUID> {
+
+    private static final int UUID_BYTES = 16;
+    private static final char SEPARATOR = ',';
+
+    private long[] bits;
+    private int size;
+
+    /**
+     * Constructor of an empty list.
+     */
+    public UuidList() {
+        this(10);
+    }
+
+    /**
+     * Constructor of an empty list.
+     *
+     * @param capacity number of uuids the list can hold before growing
+     */
+    public UuidList(int capacity) {
+        bits = new long[Math.max(1, capacity) * 2];
+    }
+
+    /**
+     * Parses the comma separated format, ignoring empty elements.
+     *
+     * @param uuids uuids without hyphens, comma separated, may be null
+     * @return the parsed list
+     * @throws IllegalArgumentException if an element isn't an uuid
+     * @see VariousUtils#stringToUuids(String)
+     */
+    public static UuidList parse(String uuids) {
+        if (uuids == null) {
+            return new UuidList();
+        }
+        UuidList list = new UuidList(uuids.length() / (Uuids.HEX_LENGTH + 1) + 1);
+        int length = uuids.length();
+        int begin = 0;
+        while (begin <= length) {
+            int end = uuids.indexOf(SEPARATOR, begin);
+            if (end < 0) {
+                end = length;
+            }
+            if (end - begin == Uuids.HEX_LENGTH) {
+                list.add(Uuids.parseHex(uuids, begin, begin + 16), Uuids.parseHex(uuids, begin + 16, end));
+            } else if (end > begin) {
+                list.add(Uuids.fromHex(uuids.substring(begin, end)));
+            }
+            begin = end + 1;
+        }
+        return list;
+    }
+
+    /**
+     * Decodes the binary format.
+     *
+     * @param bytes 16 bytes per uuid
+     * @return the decoded list
+     * @throws IllegalArgumentException if the length isn't a multiple of 16
+     * @see #toBytes()
+     */
+    public static UuidList fromBytes(byte[] bytes) {
+        if (bytes.length % UUID_BYTES != 0) {
+            throw new IllegalArgumentException("Invalid uuids length: " + bytes.length);
+        }
+        UuidList list = new UuidList(bytes.length / UUID_BYTES);
+        ByteBuffer.wrap(bytes).asLongBuffer().get(list.bits, 0, bytes.length / Long.BYTES);
+        list.size = bytes.length / UUID_BYTES;
+        return list;
+    }
+
+    /**
+     * Adds an uuid.
+     *
+     * @param uuid to add
+     */
+    public void add(UUID uuid) {
+        add(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Adds an uuid.
+     *
+     * @param msb most significant bits of the uuid
+     * @param lsb least significant bits of the uuid
+     */
+    public void add(long msb, long lsb) {
+        if (size * 2 == bits.length) {
+            bits = Arrays.copyOf(bits, bits.length * 2);
+        }
+        bits[size * 2] = msb;
+        bits[size * 2 + 1] = lsb;
+        size++;
+    }
+
+    /**
+     * Gets an uuid.
+     *
+     * @param index of the uuid
+     * @return the uuid
+     */
+    public UUID get(int index) {
+        checkIndex(index);
+        return new UUID(bits[index * 2], bits[index * 2 + 1]);
+    }
+
+    /**
+     * Gets an uuid without hyphens.
+     *
+     * @param index of the uuid
+     * @return 32 lowercase hexadecimal characters
+     */
+    public String getHex(int index) {
+        checkIndex(index);
+        return Uuids.toHex(bits[index * 2], bits[index * 2 + 1]);
+    }
+
+    /**
+     * Checks if the list contains an uuid.
+     *
+     * @param uuid to look for
+     * @return true if found
+     */
+    public boolean contains(UUID uuid) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        for (int i = 0; i < size * 2; i += 2) {
+            if (bits[i] == msb && bits[i + 1] == lsb) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return number of uuids
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if there is no uuid
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Encodes in the comma separated format.
+     *
+     * @return uuids without hyphens, comma separated, empty if none
+     * @see VariousUtils#uuidsToString(List)
+     */
+    public String format() {
+        if (size == 0) {
+            return "";
+        }
+        char[] chars = new char[size * (Uuids.HEX_LENGTH + 1) - 1];
+        for (int i = 0; i < size; i++) {
+            int offset = i * (Uuids.HEX_LENGTH + 1);
+            if (i > 0) {
+                chars[offset - 1] = SEPARATOR;
+            }
+            Uuids.writeHex(bits[i * 2], bits[i * 2 + 1], chars, offset);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Encodes in the binary format.
+     *
+     * @return 16 bytes per uuid
+     */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(size * UUID_BYTES);
+        buffer.asLongBuffer().put(bits, 0, size * 2);
+        return buffer.array();
+    }
+
+    /**
+     * @return uuids without hyphens, like {@link VariousUtils#stringToUuids(String)}
+     */
+    public List<String> toStrings() {
+        List<String> strings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            strings.add(getHex(i));
+        }
+        return strings;
+    }
+
+    @Override
+    public Iterator<UUID> iterator() {
+        return new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public UUID next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(next++);
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof UuidList)) {
+            return false;
+        }
+        UuidList other = (UuidList) obj;
+        return Arrays.equals(bits, 0, size * 2, other.bits, 0, other.size * 2);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 1;
+        for (int i = 0; i < size * 2; i++) {
+            hash = 31 * hash + Long.hashCode(bits[i]);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return format();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+package pmb.my.starter.utils;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates and encodes uuids as 32 lowercase hexadecimal characters, without hyphens, like {@link VariousUtils#getUuid()}.
+ *
+ * @see UuidList
+ */
+public final class Uuids {
+
+    /**
+     * Length of an uuid without hyphens.
+     */
+    public static final int HEX_LENGTH = 32;
+
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+    private static final byte[] VALUES = new byte[128];
+
+    static {
+        Arrays.fill(VALUES, (byte) -1);
+        for (int i = 0; i < DIGITS.length; i++) {
+            VALUES[DIGITS[i]] = (byte) i;
+            VALUES[Character.toUpperCase(DIGITS[i])] = (byte) i;
+        }
+    }
+
+    private Uuids() {
+        throw new AssertionError("Must not be used");
+    }
+
+    /**
+     * Generates a random uuid from a non-blocking, but not cryptographically strong, source. Use it for ids that don't need to be unpredictable,
+     * like temporary file names.
+     *
+     * @return a version 4 uuid
+     * @see UUID#randomUUID()
+     */
+    public static UUID fastRandom() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long msb = random.nextLong() & 0xffff_ffff_ffff_0fffL | 0x0000_0000_0000_4000L;
+        long lsb = random.nextLong() & 0x3fff_ffff_ffff_ffffL | 0x8000_0000_0000_0000L;
+        return new UUID(msb, lsb);
+    }
+
+    /**
+     * Generates a random uuid without hyphens, from a non-blocking, but not cryptographically strong, source.
+     *
+     * @return an uuid
+     * @see #fastRandom()
+     */
+    public static String fastRandomHex() {
+        return toHex(fastRandom());
+    }
+
+    /**
+     * Encodes an uuid without hyphens.
+     *
+     * @param uuid to encode
+     * @return 32 lowercase hexadecimal characters
+     */
+    public static String toHex(UUID uuid) {
+        return toHex(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Encodes an uuid without hyphens.
+     *
+     * @param msb most significant bits of the uuid
+     * @param lsb least significant bits of the uuid
+     * @return 32 lowercase hexadecimal characters
+     */
+    public static String toHex(long msb, long lsb) {
+        char[] chars = new char[HEX_LENGTH];
+        writeHex(msb, lsb, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * Encodes an uuid without hyphens into an array.
+     *
+     * @param msb most significant bits of the uuid
+     * @param lsb least significant bits of the uuid
+     * @param chars where to write
+     * @param offset index of the first character to write, 32 are written
+     */
+    static void writeHex(long msb, long lsb, char[] chars, int offset) {
+        for (int i = 0; i < 16; i++) {
+            chars[offset + i] = DIGITS[(int) (msb >>> (60 - 4 * i)) & 0xf];
+            chars[offset + 16 + i] = DIGITS[(int) (lsb >>> (60 - 4 * i)) & 0xf];
+        }
+    }
+
+    /**
+     * Decodes an uuid, with or without hyphens.
+     *
+     * @param text 32 hexadecimal characters, or the {@link UUID#toString()} format
+     * @return the uuid
+     * @throws IllegalArgumentException if the text isn't an uuid
+     */
+    public static UUID fromHex(CharSequence text) {
+        if (text.length() == HEX_LENGTH) {
+            return new UUID(parseHex(text, 0, 16), parseHex(text, 16, 32));
+        }
+        return UUID.fromString(text.toString());
+    }
+
+    /**
+     * Parses 16 hexadecimal characters into a long.
+     *
+     * @param text containing the characters
+     * @param begin index of the first character, inclusive
+     * @param end index of the last character, exclusive
+     * @return the parsed bits
+     * @throws IllegalArgumentException if a character isn't hexadecimal
+     */
+    static long parseHex(CharSequence text, int begin, int end) {
+        long bits = 0;
+        for (int i = begin; i < end; i++) {
+            char c = text.charAt(i);
+            int value = c < VALUES.length ? VALUES[c] : -1;
+            if (value < 0) {
+                throw new IllegalArgumentException("Invalid uuid: " + text);
+            }
+            bits = bits << 4 | value;
+        }
+        return bits;
+    }
+
+}
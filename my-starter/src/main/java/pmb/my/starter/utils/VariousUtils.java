@@ -10,26 +10,21 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.text.SimpleDateFormat;
-import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Calendar;
-import java.util.Collections;
 import java.util.Comparator;
-import java.util.Date;
-import java.util.GregorianCalendar;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
 import java.util.stream.Stream;
 
-import org.apache.commons.lang3.RegExUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
@@ -44,23 +39,44 @@ import pmb.my.starter.exception.MinorException;
  */
 public final class VariousUtils {
 
-    public static final Comparator<String> comparePercentage = (String s1, String s2) -> Double
-            .valueOf(Double.parseDouble(RegExUtils.replaceAll(StringUtils.substringBefore(s1, "%"), ",", ".")))
-            .compareTo(Double.valueOf(
-                    Double.parseDouble(RegExUtils.replaceAll(StringUtils.substringBefore(s2, "%"), ",", "."))));
+    /**
+     * Compares percentages like {@code 12,5 %}, without allocating.
+     *
+     * @see NumberParser#parsePercentage(CharSequence)
+     */
+    public static final Comparator<String> comparePercentage = (String s1, String s2) -> Double.compare(NumberParser.parsePercentage(s1),
+            NumberParser.parsePercentage(s2));
 
-    public static final Comparator<String> compareDouble = (String s1, String s2) -> Double
-            .valueOf(Double.parseDouble(RegExUtils.replaceAll(s1, ",", ".")))
-            .compareTo(Double.valueOf(Double.parseDouble(RegExUtils.replaceAll(s2, ",", "."))));
+    /**
+     * Compares decimals, with {@code .} or {@code ,} as separator, without allocating.
+     *
+     * @see NumberParser#parseDecimal(CharSequence)
+     */
+    public static final Comparator<String> compareDouble = (String s1, String s2) -> Double.compare(NumberParser.parseDecimal(s1),
+            NumberParser.parseDecimal(s2));
 
-    public static final Comparator<String> compareInteger = (String s1, String s2) -> {
-        s1 = StringUtils.isBlank(s1) ? "0" : s1;
-        s2 = StringUtils.isBlank(s2) ? "0" : s2;
-        return Integer.valueOf(s1).compareTo(Integer.valueOf(s2));
-    };
+    /**
+     * Compares integers, blank being zero, without allocating.
+     *
+     * @see NumberParser#parseIntOrZero(CharSequence)
+     */
+    public static final Comparator<String> compareInteger = (String s1, String s2) -> Integer.compare(NumberParser.parseIntOrZero(s1),
+            NumberParser.parseIntOrZero(s2));
 
     private static final Logger LOG = LogManager.getLogger(VariousUtils.class);
 
+    /**
+     * Parsers by number type, returning null if the string is blank or invalid.
+     */
+    private static final Map<Class<? extends Number>, Function<String, Number>> NUMBER_PARSERS = Map.of(Long.class, s -> {
+        long value = NumberParser.parseLong(s, Long.MIN_VALUE);
+        return value != Long.MIN_VALUE || NumberParser.isLong(s) ? Long.valueOf(value) : null;
+    }, Integer.class, s -> {
+        long value = NumberParser.parseLong(s, Long.MIN_VALUE);
+        return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE ? Integer.valueOf((int) value) : null;
+    }, Float.class, s -> NumberParser.isDouble(s) ? Float.valueOf(s) : null,
+            Double.class, s -> NumberParser.isDouble(s) ? Double.valueOf(NumberParser.parseDecimal(s)) : null);
+
     private VariousUtils() {
         throw new AssertionError("Must not be used");
     }
@@ -82,6 +98,7 @@ public final class VariousUtils {
      * @param line the line to clean
      * @param entrySet key: character to replace, value: character to replace with
      * @return the line cleaned
+     * @see LineCleaner to apply many rules to many lines
      */
     public static String cleanLine(String line, Set<Entry<String, String>> entrySet) {
         for (Entry<String, String> entry : entrySet) {
@@ -98,9 +115,7 @@ public final class VariousUtils {
      * @return la date au format dd-MM-yyyy HH-mm-ss
      */
     public static String dateNow() {
-        Calendar greg = new GregorianCalendar();
-        Date date = greg.getTime();
-        return new SimpleDateFormat("yyyy-MM-dd HH-mm").format(date);
+        return MyFormatter.dateTimeFileNow();
     }
 
     /**
@@ -109,7 +124,7 @@ public final class VariousUtils {
      * @return format: {@code hour:minute:second}
      */
     public static String getCurrentTime() {
-        return DateTimeFormatter.ofPattern("HH:mm:ss").format(LocalTime.now());
+        return MyFormatter.timeNow();
     }
 
     /**
@@ -146,22 +161,98 @@ public final class VariousUtils {
     }
 
     /**
-     * Calculates the median.
+     * Sorts the given list by a {@code double} key, computed only once per element instead of twice per comparison. The sort is stable and orders
+     * keys like {@link Double#compare(double, double)}.
+     *
+     * @param <T> type of the elements
+     * @param list to sort, modified
+     * @param key extracts the sort key, for instance {@link NumberParser#parsePercentage(CharSequence)}
+     */
+    public static <T> void sortByDouble(List<T> list, ToDoubleFunction<? super T> key) {
+        long[] keys = new long[list.size()];
+        int i = 0;
+        for (T element : list) {
+            long bits = Double.doubleToLongBits(key.applyAsDouble(element));
+            // Flips negative values so that signed long order matches Double.compare
+            keys[i++] = bits ^ (bits >> 63) & Long.MAX_VALUE;
+        }
+        reorder(list, keys);
+    }
+
+    /**
+     * Sorts the given list by a {@code long} key, computed only once per element instead of twice per comparison. The sort is stable.
+     *
+     * @param <T> type of the elements
+     * @param list to sort, modified
+     * @param key extracts the sort key, for instance {@link NumberParser#parseIntOrZero(CharSequence)}
+     */
+    public static <T> void sortByLong(List<T> list, ToLongFunction<? super T> key) {
+        long[] keys = new long[list.size()];
+        int i = 0;
+        for (T element : list) {
+            keys[i++] = key.applyAsLong(element);
+        }
+        reorder(list, keys);
+    }
+
+    /**
+     * Sorts elements indexes by their keys with a stable bottom-up merge sort, then moves elements accordingly.
+     */
+    private static <T> void reorder(List<T> list, long[] keys) {
+        int size = keys.length;
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        int[] buffer = new int[size];
+        for (int width = 1; width < size; width *= 2) {
+            for (int low = 0; low < size - width; low += 2 * width) {
+                int middle = low + width;
+                int high = Math.min(low + 2 * width, size);
+                if (keys[order[middle - 1]] <= keys[order[middle]]) {
+                    continue;
+                }
+                int left = low;
+                int right = middle;
+                for (int k = low; k < high; k++) {
+                    buffer[k] = right >= high || left < middle && keys[order[left]] <= keys[order[right]] ? order[left++] : order[right++];
+                }
+                System.arraycopy(buffer, low, order, low, high - low);
+            }
+        }
+        Object[] elements = list.toArray();
+        ListIterator<T> iterator = list.listIterator();
+        for (int index : order) {
+            iterator.next();
+            @SuppressWarnings("unchecked")
+            T element = (T) elements[index];
+            iterator.set(element);
+        }
+    }
+
+    /**
+     * Calculates the median, in linear time. The given list isn't modified.
      *
      * @param numArray a list of number
      * @return the median calculated
+     * @see MyStatistics#median(double...)
      */
     public static Double median(List<BigDecimal> numArray) {
         if (numArray.isEmpty()) {
             return 0D;
         }
-        Collections.sort(numArray);
+        BigDecimal[] values = numArray.toArray(new BigDecimal[0]);
+        int halfSize = values.length / 2;
+        MyStatistics.select(values, halfSize);
         double median;
-        int halfSize = numArray.size() / 2;
-        if (numArray.size() % 2 == 0) {
-            median = numArray.get(halfSize).add(numArray.get(halfSize - 1)).divide(BigDecimal.valueOf(2D)).doubleValue();
+        if (values.length % 2 == 0) {
+            BigDecimal lower = values[0];
+            for (int i = 1; i < halfSize; i++) {
+                lower = lower.max(values[i]);
+            }
+            median = values[halfSize].add(lower).divide(BigDecimal.valueOf(2D)).doubleValue();
         } else {
-            median = numArray.get(halfSize).doubleValue();
+            median = values[halfSize].doubleValue();
         }
         return median;
     }
@@ -173,11 +264,14 @@ public final class VariousUtils {
      * @param average mean
      * @param count size of the list
      * @return the standard deviation calculated
+     * @see StatsAccumulator
      */
     public static Double calculateSD(List<Double> numArray, Double average, long count) {
+        double mean = average;
         double standardDeviation = 0.0;
         for (Double num : numArray) {
-            standardDeviation += Math.pow(num - average, 2);
+            double deviation = num - mean;
+            standardDeviation += deviation * deviation;
         }
 
         return Math.sqrt(standardDeviation / count);
@@ -187,9 +281,10 @@ public final class VariousUtils {
      * Gets a random uuid without hyphens.
      * @return an uuid
      * @see UUID
+     * @see Uuids#fastRandomHex()
      */
     public static String getUuid() {
-        return UUID.randomUUID().toString().replace("-", "");
+        return Uuids.toHex(UUID.randomUUID());
     }
 
     /**
@@ -205,10 +300,10 @@ public final class VariousUtils {
      * Splits a {@link String} containing uuids comma separated to a list.
      * @param uuids the string to split
      * @return a list of uuid
+     * @see UuidList#parse(String)
      */
     public static List<String> stringToUuids(String uuids) {
-        return Optional.ofNullable(uuids).map(list -> new LinkedList<>(Arrays.asList(StringUtils.split(list, ","))))
-                .orElse(new LinkedList<>());
+        return Optional.ofNullable(uuids).map(list -> new ArrayList<>(Arrays.asList(StringUtils.split(list, ',')))).orElse(new ArrayList<>());
     }
 
     /**
@@ -216,14 +311,10 @@ public final class VariousUtils {
      *
      * @param text The String to compress
      * @return a string with no punctuation
+     * @see TextNormalizer
      */
     public static String removePunctuation(String text) {
-        if (StringUtils.isBlank(text)) {
-            return "";
-        }
-        String trim = StringUtils.trim(text);
-        String res = MyConstant.PATTERN_PUNCTUATION.matcher(trim).replaceAll("").toLowerCase();
-        return StringUtils.isBlank(res) ? trim : res;
+        return TextNormalizer.removePunctuation(text);
     }
 
     /**
@@ -256,19 +347,21 @@ public final class VariousUtils {
      * @param <T> extending {@link Number}
      * @param string to parse
      * @param type wanted return type
-     * @return value converted, 0 if a {@link NumberFormatException} is thrown
+     * @return value converted, 0 if blank or invalid
+     * @see NumberParser
      */
     public static <T extends Number> T parseStringToNumber(String string, Class<T> type) {
-        Map<Class<? extends Number>, Function<String, Number>> map = Map.of(Long.class, Long::valueOf, Integer.class,
-                Integer::valueOf, Float.class, Float::valueOf, Double.class, Double::valueOf);
-        Function<String, Number> converter = map.entrySet().stream().filter(e -> type.isNestmateOf(e.getKey()))
-                .findFirst().map(Entry::getValue)
-                .orElseThrow(() -> new MinorException("Incorrect given type: " + type));
-        try {
-            return type.cast(converter.apply(string));
-        } catch (NumberFormatException e) {
-            LOG.warn("Can't parse string {}", string);
-            return type.cast(converter.apply("0"));
+        Function<String, Number> parser = NUMBER_PARSERS.get(type);
+        if (parser == null) {
+            throw new MinorException("Incorrect given type: " + type);
+        }
+        Number value = parser.apply(string);
+        if (value == null) {
+            if (StringUtils.isNotBlank(string)) {
+                LOG.warn("Can't parse string {}", string);
+            }
+            value = parser.apply("0");
         }
+        return type.cast(value);
     }
 }
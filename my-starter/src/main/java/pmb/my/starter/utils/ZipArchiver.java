@@ -0,0 +1,426 @@
+package pmb.my.starter.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import pmb.my.starter.exception.MajorException;
+import pmb.my.starter.metrics.Counter;
+import pmb.my.starter.metrics.LatencyHistogram;
+import pmb.my.starter.metrics.Metrics;
+
+/**
+ * Builds zip archives of many files, compressing entries in parallel.
+ * <p>
+ * Each entry is compressed by a worker into memory or into a temporary part file next to the archive, then parts are appended in order to the
+ * archive with {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}. Files already compressed (see
+ * {@link #STORED_EXTENSIONS}) or every file when the level is {@link Deflater#NO_COMPRESSION} are stored as is. Zip64 records are written when
+ * sizes, offsets or entry count exceed the classic zip format limits.
+ *
+ * @see MyFileUtils#zipFile(File)
+ */
+public final class ZipArchiver {
+
+    private static final Logger LOG = LogManager.getLogger(ZipArchiver.class);
+    private static final LatencyHistogram ZIP_TIME = Metrics.histogram(Metrics.ZIP);
+    private static final Counter ZIP_BYTES_READ = Metrics.counter(Metrics.ZIP_BYTES_READ);
+    private static final Counter ZIP_BYTES_WRITTEN = Metrics.counter(Metrics.ZIP_BYTES_WRITTEN);
+
+    /**
+     * Extensions of files stored without compression, their content being already compressed.
+     */
+    public static final Set<String> STORED_EXTENSIONS = Set.of(".zip", ".gz", ".tgz", ".bz2", ".xz", ".7z", ".rar", ".jar", ".png", ".jpg", ".jpeg",
+            ".gif", ".webp", ".mp3", ".flac", ".ogg", ".mp4", ".mkv", ".avi", ".docx", ".xlsx", ".pptx");
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final long IN_MEMORY_LIMIT = 1024L * 1024L;
+    private static final long ZIP64_LIMIT = 0xFFFFFFFFL;
+    private static final int ZIP64_COUNT_LIMIT = 0xFFFF;
+    private static final int LOCAL_HEADER = 0x04034b50;
+    private static final int CENTRAL_HEADER = 0x02014b50;
+    private static final int END_OF_CENTRAL = 0x06054b50;
+    private static final int ZIP64_END_OF_CENTRAL = 0x06064b50;
+    private static final int ZIP64_LOCATOR = 0x07064b50;
+    private static final short ZIP64_EXTRA = 0x0001;
+    private static final short VERSION = 20;
+    private static final short VERSION_ZIP64 = 45;
+    private static final short UTF8_FLAG = 0x0800;
+    private static final short STORED = 0;
+    private static final short DEFLATED = 8;
+
+    private ZipArchiver() {
+        throw new AssertionError("Must not be used");
+    }
+
+    /**
+     * Zips the given files, entries are named after the files names.
+     *
+     * @param files to zip
+     * @param archive zip file to create, replaced if it exists
+     * @param level compression level from {@link Deflater#NO_COMPRESSION} to {@link Deflater#BEST_COMPRESSION}, or
+     *        {@link Deflater#DEFAULT_COMPRESSION}
+     * @return archive and throughput statistics
+     * @throws MajorException if something went wrong
+     */
+    public static ZipResult zip(Collection<File> files, File archive, int level) throws MajorException {
+        return zip(files.stream().map(file -> new Source(file.toPath(), file.getName())).collect(Collectors.toList()), archive, level,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Zips recursively the content of the given folder, entries are named after their path relative to the folder.
+     *
+     * @param folder to zip
+     * @param archive zip file to create, replaced if it exists
+     * @param level compression level from {@link Deflater#NO_COMPRESSION} to {@link Deflater#BEST_COMPRESSION}, or
+     *        {@link Deflater#DEFAULT_COMPRESSION}
+     * @param parallelism number of entries compressed at the same time
+     * @return archive and throughput statistics
+     * @throws MajorException if something went wrong
+     */
+    public static ZipResult zipFolder(File folder, File archive, int level, int parallelism) throws MajorException {
+        Path root = folder.toPath();
+        Path target = archive.toPath().toAbsolutePath();
+        List<Source> sources;
+        try (Stream<Path> paths = FolderScanner.scan(root, null, true)) {
+            // Follows links, skipping links to folders and special files like pipes, as the scanner doesn't
+            sources = paths.filter(Files::isRegularFile).filter(path -> !path.toAbsolutePath().equals(target))
+                    .map(path -> new Source(path, StringUtils.replace(root.relativize(path).toString(), File.separator, "/")))
+                    .collect(Collectors.toList());
+        }
+        return zip(sources, archive, level, parallelism);
+    }
+
+    /**
+     * Zips recursively the content of the given folder using all available processors.
+     *
+     * @param folder to zip
+     * @param archive zip file to create, replaced if it exists
+     * @param level compression level
+     * @return archive and throughput statistics
+     * @throws MajorException if something went wrong
+     * @see #zipFolder(File, File, int, int)
+     */
+    public static ZipResult zipFolder(File folder, File archive, int level) throws MajorException {
+        return zipFolder(folder, archive, level, Runtime.getRuntime().availableProcessors());
+    }
+
+    private static ZipResult zip(List<Source> sources, File archive, int level, int parallelism) throws MajorException {
+        LOG.debug("Start zip");
+        long start = System.nanoTime();
+        Path target = archive.toPath().toAbsolutePath();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        // Bounds the number of compressed parts waiting to be written
+        Deque<Future<Entry>> pending = new ArrayDeque<>();
+        List<Entry> written = new ArrayList<>(sources.size());
+        long read = 0;
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Iterator<Source> iterator = sources.iterator();
+            int window = Math.max(1, parallelism) * 2;
+            while (iterator.hasNext() || !pending.isEmpty()) {
+                while (iterator.hasNext() && pending.size() < window) {
+                    Source source = iterator.next();
+                    pending.add(executor.submit(() -> prepare(source, level, target.getParent())));
+                }
+                Entry entry = pending.poll().get();
+                entry.offset = out.position();
+                writeEntry(out, entry);
+                read += entry.size;
+                written.add(entry);
+            }
+            writeCentralDirectory(out, written);
+            ZipResult result = new ZipResult(archive, written.size(), read, out.size(), Duration.ofNanos(System.nanoTime() - start));
+            ZIP_TIME.record(result.duration().toNanos());
+            ZIP_BYTES_READ.add(result.bytesRead());
+            ZIP_BYTES_WRITTEN.add(result.bytesWritten());
+            LOG.debug("End zip: {}", result);
+            return result;
+        } catch (IOException e) {
+            throw new MajorException("Exception thrown when zipping in: " + archive.getAbsolutePath(), e);
+        } catch (ExecutionException e) {
+            throw new MajorException("Exception thrown when compressing entry of: " + archive.getAbsolutePath(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MajorException("Interrupted when zipping in: " + archive.getAbsolutePath(), e);
+        } finally {
+            executor.shutdownNow();
+            pending.forEach(future -> future.cancel(true));
+            pending.stream().filter(future -> future.isDone() && !future.isCancelled()).forEach(future -> {
+                try {
+                    future.get().deletePart();
+                } catch (IOException | ExecutionException e) {
+                    LOG.debug("Entry part not deleted", e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+    }
+
+    /**
+     * Computes crc and sizes of an entry, compressing it if needed.
+     */
+    private static Entry prepare(Source source, int level, Path partFolder) throws IOException {
+        String fileName = source.path.getFileName().toString().toLowerCase(Locale.ROOT);
+        boolean stored = level == Deflater.NO_COMPRESSION || STORED_EXTENSIONS.stream().anyMatch(fileName::endsWith);
+        Entry entry = new Entry(source.path, source.name, stored ? STORED : DEFLATED, Files.getLastModifiedTime(source.path).toMillis());
+        try (FileChannel in = FileChannel.open(source.path, StandardOpenOption.READ)) {
+            if (stored) {
+                read(in, entry, null);
+                entry.compressedSize = entry.size;
+                return entry;
+            }
+            OutputStream part;
+            if (in.size() <= IN_MEMORY_LIMIT) {
+                entry.memoryPart = new ByteArrayOutputStream((int) in.size() / 2 + 64);
+                part = entry.memoryPart;
+            } else {
+                entry.filePart = Files.createTempFile(partFolder, ".zip", ".part");
+                part = Files.newOutputStream(entry.filePart);
+            }
+            Deflater deflater = new Deflater(level, true);
+            try (DeflaterOutputStream deflated = new DeflaterOutputStream(part, deflater, BUFFER_SIZE)) {
+                read(in, entry, deflated);
+            } finally {
+                deflater.end();
+            }
+            entry.compressedSize = entry.memoryPart != null ? entry.memoryPart.size() : Files.size(entry.filePart);
+            return entry;
+        } catch (IOException e) {
+            entry.deletePart();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the whole file, computing its crc and size, and copies it to the given stream if any.
+     */
+    private static void read(FileChannel in, Entry entry, OutputStream copy) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+        long total = 0;
+        int read;
+        while ((read = in.read(wrapped.clear())) >= 0) {
+            crc.update(buffer, 0, read);
+            if (copy != null) {
+                copy.write(buffer, 0, read);
+            }
+            total += read;
+        }
+        entry.crc = crc.getValue();
+        entry.size = total;
+    }
+
+    private static void writeEntry(FileChannel out, Entry entry) throws IOException {
+        byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+        boolean zip64 = entry.size >= ZIP64_LIMIT || entry.compressedSize >= ZIP64_LIMIT;
+        ByteBuffer header = buffer(30 + name.length + (zip64 ? 20 : 0));
+        header.putInt(LOCAL_HEADER).putShort(zip64 ? VERSION_ZIP64 : VERSION).putShort(UTF8_FLAG).putShort(entry.method).putInt(dosTime(entry.lastModified))
+                .putInt((int) entry.crc).putInt(zip64 ? (int) ZIP64_LIMIT : (int) entry.compressedSize).putInt(zip64 ? (int) ZIP64_LIMIT : (int) entry.size)
+                .putShort((short) name.length).putShort((short) (zip64 ? 20 : 0)).put(name);
+        if (zip64) {
+            header.putShort(ZIP64_EXTRA).putShort((short) 16).putLong(entry.size).putLong(entry.compressedSize);
+        }
+        writeFully(out, header.flip());
+        try {
+            if (entry.memoryPart != null) {
+                writeFully(out, ByteBuffer.wrap(entry.memoryPart.toByteArray()));
+            } else {
+                transfer(entry.filePart != null ? entry.filePart : entry.path, entry.compressedSize, out);
+            }
+        } finally {
+            entry.deletePart();
+        }
+    }
+
+    private static void transfer(Path path, long size, FileChannel out) throws IOException {
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (in.size() != size) {
+                throw new IOException("File modified while zipping: " + path);
+            }
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+    }
+
+    private static void writeCentralDirectory(FileChannel out, List<Entry> entries) throws IOException {
+        long start = out.position();
+        for (Entry entry : entries) {
+            byte[] name = entry.name.getBytes(StandardCharsets.UTF_8);
+            boolean sizes64 = entry.size >= ZIP64_LIMIT || entry.compressedSize >= ZIP64_LIMIT;
+            boolean offset64 = entry.offset >= ZIP64_LIMIT;
+            int extra = (sizes64 ? 16 : 0) + (offset64 ? 8 : 0);
+            ByteBuffer header = buffer(46 + name.length + (extra > 0 ? extra + 4 : 0));
+            short version = extra > 0 ? VERSION_ZIP64 : VERSION;
+            header.putInt(CENTRAL_HEADER).putShort(version).putShort(version).putShort(UTF8_FLAG).putShort(entry.method).putInt(dosTime(entry.lastModified))
+                    .putInt((int) entry.crc).putInt(sizes64 ? (int) ZIP64_LIMIT : (int) entry.compressedSize)
+                    .putInt(sizes64 ? (int) ZIP64_LIMIT : (int) entry.size).putShort((short) name.length).putShort((short) (extra > 0 ? extra + 4 : 0))
+                    .putShort((short) 0).putShort((short) 0).putShort((short) 0).putInt(0).putInt(offset64 ? (int) ZIP64_LIMIT : (int) entry.offset)
+                    .put(name);
+            if (extra > 0) {
+                header.putShort(ZIP64_EXTRA).putShort((short) extra);
+                if (sizes64) {
+                    header.putLong(entry.size).putLong(entry.compressedSize);
+                }
+                if (offset64) {
+                    header.putLong(entry.offset);
+                }
+            }
+            writeFully(out, header.flip());
+        }
+        long end = out.position();
+        long size = end - start;
+        int count = entries.size();
+        boolean zip64 = count >= ZIP64_COUNT_LIMIT || size >= ZIP64_LIMIT || start >= ZIP64_LIMIT;
+        ByteBuffer trailer = buffer(22 + (zip64 ? 76 : 0));
+        if (zip64) {
+            trailer.putInt(ZIP64_END_OF_CENTRAL).putLong(44L).putShort(VERSION_ZIP64).putShort(VERSION_ZIP64).putInt(0).putInt(0).putLong(count)
+                    .putLong(count).putLong(size).putLong(start);
+            trailer.putInt(ZIP64_LOCATOR).putInt(0).putLong(end).putInt(1);
+        }
+        short shortCount = (short) (zip64 ? ZIP64_COUNT_LIMIT : count);
+        trailer.putInt(END_OF_CENTRAL).putShort((short) 0).putShort((short) 0).putShort(shortCount).putShort(shortCount)
+                .putInt(zip64 ? (int) ZIP64_LIMIT : (int) size).putInt(zip64 ? (int) ZIP64_LIMIT : (int) start).putShort((short) 0);
+        writeFully(out, trailer.flip());
+    }
+
+    private static ByteBuffer buffer(int size) {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Converts a date to the MS-DOS format used by zip headers: date in the high word, time in the low one.
+     */
+    private static int dosTime(long millis) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+        if (time.getYear() < 1980) {
+            time = LocalDateTime.of(1980, 1, 1, 0, 0);
+        } else if (time.getYear() > 2107) {
+            time = LocalDateTime.of(2107, 12, 31, 23, 59, 58);
+        }
+        int date = (time.getYear() - 1980) << 9 | time.getMonthValue() << 5 | time.getDayOfMonth();
+        return date << 16 | time.getHour() << 11 | time.getMinute() << 5 | time.getSecond() >> 1;
+    }
+
+    /**
+     * A file to zip with its entry name.
+     */
+    private static final class Source {
+
+        private final Path path;
+        private final String name;
+
+        private Source(Path path, String name) {
+            this.path = path;
+            this.name = name;
+        }
+    }
+
+    /**
+     * An entry prepared by a worker, waiting to be written.
+     */
+    private static final class Entry {
+
+        private final Path path;
+        private final String name;
+        private final short method;
+        private final long lastModified;
+        private long crc;
+        private long size;
+        private long compressedSize;
+        private long offset;
+        private ByteArrayOutputStream memoryPart;
+        private Path filePart;
+
+        private Entry(Path path, String name, short method, long lastModified) {
+            this.path = path;
+            this.name = name;
+            this.method = method;
+            this.lastModified = lastModified;
+        }
+
+        private void deletePart() throws IOException {
+            memoryPart = null;
+            if (filePart != null) {
+                Files.deleteIfExists(filePart);
+                filePart = null;
+            }
+        }
+    }
+
+    /**
+     * Result of an archiving.
+     *
+     * @param archive the created zip file
+     * @param entries number of zipped files
+     * @param bytesRead total size of the zipped files
+     * @param bytesWritten size of the archive
+     * @param duration time spent
+     */
+    public record ZipResult(File archive, int entries, long bytesRead, long bytesWritten, Duration duration) {
+
+        /**
+         * @return read throughput in megabytes per second
+         */
+        public double throughput() {
+            double seconds = duration.toNanos() / 1_000_000_000D;
+            return seconds == 0D ? 0D : bytesRead / 1024D / 1024D / seconds;
+        }
+
+        /**
+         * @return archive size divided by zipped files size
+         */
+        public double ratio() {
+            return bytesRead == 0L ? 1D : (double) bytesWritten / bytesRead;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d entries, %d bytes read, %d bytes written in %d ms (%.2f MB/s)", entries, bytesRead, bytesWritten,
+                    duration.toMillis(), throughput());
+        }
+    }
+
+}